@@ -0,0 +1,119 @@
+package matchthree.controller;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import matchthree.message.BoardDelta;
+import matchthree.message.UpdateBoard;
+import matchthree.message.UpdateDelta;
+import matchthree.model.Jewel;
+import matchthree.model.MatchThreeModel;
+import matchthree.model.Serialize;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of board serialization for save files, and of the message
+ * encoding done by `Server.sendDatagram` before a datagram is sent.
+ *
+ * @author Erik Selstam
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+public class MessageBenchmark
+{
+	/** Seed of the benchmarked game. */
+	private static final long SEED = 1;
+	
+	/** Board to serialize. */
+	private Jewel[] board = null;
+	
+	/** Board message. */
+	private UpdateBoard boardMessage = null;
+	
+	/** Delta message of one cascade step. */
+	private UpdateDelta deltaMessage = null;
+	
+	/** Number of columns and rows. */
+	@Param({"8", "16", "64"})
+	private int size;
+	
+	/**
+	 * Measure encoding a whole board message.
+	 *
+	 * @author Erik Selstam
+	 * @return The encoded message.
+	 * @throws IOException Never.
+	 */
+	@Benchmark
+	public byte[] encodeBoard()
+		throws IOException
+	{
+		return Server.encode(boardMessage);
+	}
+	
+	/**
+	 * Measure encoding the delta message of a cascade step.
+	 *
+	 * @author Erik Selstam
+	 * @return The encoded message.
+	 * @throws IOException Never.
+	 */
+	@Benchmark
+	public byte[] encodeDelta()
+		throws IOException
+	{
+		return Server.encode(deltaMessage);
+	}
+	
+	/**
+	 * Measure serializing a board for a save file.
+	 *
+	 * @author Erik Selstam
+	 * @return The serialized board.
+	 * @throws Serialize.UnsupportedTypeException Never.
+	 */
+	@Benchmark
+	public String serialize()
+		throws Serialize.UnsupportedTypeException
+	{
+		return Serialize.serialize(board);
+	}
+	
+	/**
+	 * Create the messages from a dealt game and its first move.
+	 *
+	 * @author Erik Selstam
+	 */
+	@Setup
+	@SuppressWarnings("deprecation")
+	public void setUp() {
+		// Deal game //
+		MatchThreeModel model = new MatchThreeModel(size, size, SEED);
+		board        = model.getBoard();
+		boardMessage = new UpdateBoard(board);
+		
+		// Capture the first delta of a move //
+		BoardDelta[] first = new BoardDelta[1];
+		model.addObserver((observable, argument) -> {
+			if (first[0] == null && argument instanceof BoardDelta) {
+				first[0] = (BoardDelta) argument;
+			}
+		});
+		int swap = model.getMove(0);
+		model.move(model.getSwapSource(swap), model.getSwapTarget(swap));
+		deltaMessage = new UpdateDelta(first[0]);
+	}
+}
@@ -0,0 +1,161 @@
+package matchthree.model;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the board operations behind the cascade steps of a move:
+ * finding chains, dropping cells into gaps, and refilling the board. The
+ * model's `dropCells` and `fill` are private, so the board operations they
+ * are made of are measured instead.
+ *
+ * @author Erik Selstam
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+public class BitBoardBenchmark
+{
+	/** Minimum chain length. */
+	private static final int MINIMUM_LENGTH = 3;
+	
+	/** Number of rows dropped and refilled from the top. */
+	private static final int REFILL_DEPTH = 3;
+	
+	/** Seed of the benchmarked board. */
+	private static final long SEED = 1;
+	
+	/** Board with a chain, for `findChains`. */
+	private BitBoard chained = null;
+	
+	/** List of found chains. */
+	private final ChainList chains = new ChainList();
+	
+	/** Dropped column, for `dropCells`. */
+	private final Jewel[] column = new Jewel[REFILL_DEPTH];
+	
+	/** Board with gaps in the top rows, for `dropCells`. */
+	private BitBoard gapped = null;
+	
+	/** Number of rows to search, per column. */
+	private int[] depths = null;
+	
+	/** Generator for refills. */
+	private SplittableRandom random = null;
+	
+	/** Board to refill, for `fill`. */
+	private BitBoard refilled = null;
+	
+	/** Number of columns and rows. */
+	@Param({"8", "16", "64"})
+	private int size;
+	
+	/**
+	 * Copy jewels into a new board.
+	 *
+	 * @author Erik Selstam
+	 * @param jewels Jewels in row-major order.
+	 * @return The board.
+	 */
+	private BitBoard createBoard(final Jewel[] jewels) {
+		BitBoard board = new BitBoard(size, size);
+		for (int i = 0; i < jewels.length; i++) {
+			board.put(i % size, i / size, jewels[i]);
+		}
+		return board;
+	}
+	
+	/**
+	 * Measure dropping the cells of every column into its gaps.
+	 *
+	 * @author Erik Selstam
+	 * @return The last dropped column.
+	 */
+	@Benchmark
+	public Jewel[] dropCells() {
+		for (int x = 0; x < size; x++) {
+			gapped.getDropped(x, REFILL_DEPTH, column);
+		}
+		return column;
+	}
+	
+	/**
+	 * Measure a search of the whole board for chains.
+	 *
+	 * @author Erik Selstam
+	 * @return The found chains.
+	 */
+	@Benchmark
+	public ChainList findChains() {
+		chained.findChains(MINIMUM_LENGTH, depths, chains);
+		return chains;
+	}
+	
+	/**
+	 * Measure clearing and refilling the top rows of the board.
+	 *
+	 * @author Erik Selstam
+	 * @return The refilled board.
+	 */
+	@Benchmark
+	public BitBoard fill() {
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < REFILL_DEPTH; y++) {
+				refilled.put(x, y, null);
+			}
+		}
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < REFILL_DEPTH; y++) {
+				refilled.put(x, y, refilled.draw(x, y, random));
+			}
+		}
+		return refilled;
+	}
+	
+	/**
+	 * Create the benchmarked boards from a dealt game.
+	 *
+	 * @author Erik Selstam
+	 */
+	@Setup
+	public void setUp() {
+		// Deal game //
+		MatchThreeModel model  = new MatchThreeModel(size, size, SEED);
+		Jewel[]         jewels = model.getBoard();
+		random   = new SplittableRandom(SEED);
+		depths   = new int[size];
+		refilled = createBoard(jewels);
+		Arrays.fill(depths, size);
+		
+		// Make a legal swap without clearing its chains //
+		int        swap = model.getMove(0);
+		Coordinate from = model.getSwapSource(swap);
+		Coordinate to   = model.getSwapTarget(swap);
+		chained = createBoard(jewels);
+		chained.put(from.getX(), from.getY(), model.get(to));
+		chained.put(to.getX(), to.getY(), model.get(from));
+		
+		// Punch a gap into every other cell of the top rows //
+		gapped = createBoard(jewels);
+		for (int x = 0; x < size; x++) {
+			for (int y = x % 2; y < REFILL_DEPTH; y += 2) {
+				gapped.put(x, y, null);
+			}
+		}
+	}
+}
@@ -0,0 +1,159 @@
+package matchthree.model;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the public game model operations.
+ *
+ * <p>
+ * Moves are made on a scratch model, which is reset from a fixed game with
+ * `copyFrom` before every move, so that every invocation makes the same move
+ * with the same refills. `copy` measures the reset alone, to be subtracted
+ * from the move benchmarks.
+ * </p>
+ *
+ * @author Erik Selstam
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+public class ModelBenchmark
+{
+	/** Seed of the benchmarked game. */
+	private static final long SEED = 1;
+	
+	/** Swap clearing chains over more than one cascade step. */
+	private int cascadeSwap = 0;
+	
+	/** Game to make moves from. */
+	private MatchThreeModel model = null;
+	
+	/** Scratch model to make moves on. */
+	private MatchThreeModel scratch = null;
+	
+	/** Swap clearing a single cascade step. */
+	private int singleSwap = 0;
+	
+	/** Number of columns and rows. */
+	@Param({"8", "16", "64"})
+	private int size;
+	
+	/**
+	 * Measure a reset of the scratch model.
+	 *
+	 * @author Erik Selstam
+	 * @return The scratch model.
+	 */
+	@Benchmark
+	public MatchThreeModel copy() {
+		scratch.copyFrom(model, SEED);
+		return scratch;
+	}
+	
+	/**
+	 * Measure the construction of a model, including its first board.
+	 *
+	 * @author Erik Selstam
+	 * @return The new model.
+	 */
+	@Benchmark
+	public MatchThreeModel construct() {
+		return new MatchThreeModel(size, size, SEED);
+	}
+	
+	/**
+	 * Measure dealing a new board.
+	 *
+	 * @author Erik Selstam
+	 * @return The scratch model.
+	 */
+	@Benchmark
+	public MatchThreeModel init() {
+		scratch.init(SEED);
+		return scratch;
+	}
+	
+	/**
+	 * Measure a move followed by a cascade of more than one step.
+	 *
+	 * @author Erik Selstam
+	 * @return The resulting score.
+	 */
+	@Benchmark
+	public int moveWithCascade() {
+		scratch.copyFrom(model, SEED);
+		scratch.move(
+			scratch.getSwapSource(cascadeSwap),
+			scratch.getSwapTarget(cascadeSwap)
+		);
+		return scratch.getScore();
+	}
+	
+	/**
+	 * Measure a move clearing chains in a single step.
+	 *
+	 * @author Erik Selstam
+	 * @return The resulting score.
+	 */
+	@Benchmark
+	public int moveWithoutCascade() {
+		scratch.copyFrom(model, SEED);
+		scratch.move(
+			scratch.getSwapSource(singleSwap),
+			scratch.getSwapTarget(singleSwap)
+		);
+		return scratch.getScore();
+	}
+	
+	/**
+	 * Create the game and pick the benchmarked swaps. The single step swap
+	 * is the first one found, and the cascading swap the one with the most
+	 * steps.
+	 *
+	 * @author Erik Selstam
+	 */
+	@Setup
+	public void setUp() {
+		// Create models //
+		model   = new MatchThreeModel(size, size, SEED);
+		scratch = new MatchThreeModel(new Jewel[size * size], size, size, 0);
+		
+		// Rate every swap by its number of cascade steps //
+		int[] swaps    = new int[size * size * 2];
+		int   count    = model.getMoves(swaps);
+		int   maxDepth = 0;
+		singleSwap = -1;
+		for (int i = 0; i < count; i++) {
+			scratch.copyFrom(model, SEED);
+			scratch.move(
+				scratch.getSwapSource(swaps[i]),
+				scratch.getSwapTarget(swaps[i])
+			);
+			int depth = scratch.getCascadeDepth();
+			if (depth == 1 && singleSwap < 0) {
+				singleSwap = swaps[i];
+			}
+			if (depth > maxDepth) {
+				cascadeSwap = swaps[i];
+				maxDepth    = depth;
+			}
+		}
+		if (singleSwap < 0) {
+			throw new IllegalStateException("No single step swap found");
+		}
+	}
+}
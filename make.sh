@@ -1,6 +1,8 @@
 #!/usr/bin/env bash
 set -euC
+shopt -s globstar
 
+BENCH='bench'                      # Benchmark source code directory.
 CHECKSTYLE='Checkstyle.xml'        # Checkstyle configuration.
 CLASS_NAME='matchthree.MatchThree' # Main class name.
 EXIT_BAD_VERB=1                    # Exit code - Unrecognized verb.
@@ -13,11 +15,39 @@ PACKAGE_NAME='matchthree'          # Main package name.
 RESOURCE='resources'               # Resource directory.
 SOURCE='src'                       # Source code directory.
 TARGET='target'                    # Target directory.
+TARGET_BENCH='bench'               # Benchmark artifact directory name.
 TARGET_DOC='doc'                   # Documentation artifact directory name.
 TARGET_MAIN='main'                 # Main artifact directory name.
 
 script_dir='.' # Path to script. Updated at run-time.
 
+bench () {
+	cd -- "${script_dir}/${BENCH}"
+	mkdir -p -- "${script_dir}/${TARGET}/${TARGET_BENCH}"
+	# NOTE: The game is compiled without the JMH annotation processor, so
+	#       that it is not asked to process the flight recorder annotations.
+	javac \
+		-encoding UTF-8 \
+		-Xlint:all \
+		-proc:none \
+		-d "${script_dir}/${TARGET}/${TARGET_BENCH}" \
+		"${script_dir}/${SOURCE}/"**/*.java \
+		2>&1
+	cd -- "${script_dir}/${TARGET}/${TARGET_BENCH}"
+	javac \
+		-encoding UTF-8 \
+		-Xlint:all \
+		-cp "${JMH_CLASSPATH=${script_dir}/${LIBRARY}/jmh/*}:." \
+		-d . \
+		"${script_dir}/${BENCH}/"**/*.java \
+		2>&1
+	# shellcheck disable=SC2086
+	java \
+		-cp "${JMH_CLASSPATH}:." \
+		org.openjdk.jmh.Main \
+		${BENCH_ARGS-}
+}
+
 build () {
 	cd -- "${script_dir}/${SOURCE}"
 	mkdir -p -- "${script_dir}/${TARGET}/${TARGET_MAIN}"
@@ -69,7 +99,16 @@ lint () {
 }
 
 print_usage () {
-	printf 'usage: make.sh [build|clean|doc|help|lint|run]...\n'
+	printf 'usage: make.sh [bench|build|clean|doc|help|lint|replay|run|simulate]...\n'
+}
+
+replay () {
+	cd -- "${script_dir}/${TARGET}/${TARGET_MAIN}"
+	# shellcheck disable=SC2086
+	java \
+		-cp "${script_dir}/${LIBRARY}/*:${CLASSPATH=.}" \
+		"${PACKAGE_NAME}.simulation.ReplayCheck" \
+		${REPLAY_FILES-}
 }
 
 run () {
@@ -77,6 +116,15 @@ run () {
 	java -cp "${script_dir}/${LIBRARY}/*:${CLASSPATH=.}" "$CLASS_NAME"
 }
 
+simulate () {
+	cd -- "${script_dir}/${TARGET}/${TARGET_MAIN}"
+	# shellcheck disable=SC2086
+	java \
+		-cp "${script_dir}/${LIBRARY}/*:${CLASSPATH=.}" \
+		"${PACKAGE_NAME}.simulation.Simulator" \
+		${SIMULATION_ARGS-}
+}
+
 main () {
 	# Get script directory #
 	get_path
@@ -92,12 +140,15 @@ main () {
 	for verb in "$@"
 	do
 		case "$verb" in
-			build) build ;;
-			clean) clean ;;
-			doc)   doc ;;
-			help)  print_usage ;;
-			lint)  lint ;;
-			run)   run ;;
+			bench)    bench ;;
+			build)    build ;;
+			clean)    clean ;;
+			doc)      doc ;;
+			help)     print_usage ;;
+			lint)     lint ;;
+			replay)   replay ;;
+			run)      run ;;
+			simulate) simulate ;;
 			*)
 				printf 'Verb not recognized: "%s"\n' "$1" 1>&2
 				print_usage 1>&2
@@ -0,0 +1,109 @@
+package matchthree.controller;
+
+import java.awt.Container;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import javax.swing.SwingUtilities;
+import matchthree.model.Coordinate;
+import matchthree.model.MonteCarloSearch;
+import matchthree.model.OpponentModel;
+import matchthree.view.GameFinished;
+
+/**
+ * Local AI opponent. Plays the opponent model in place of a network peer,
+ * choosing each move by parallel Monte Carlo rollouts.
+ *
+ * @author Erik Selstam
+ */
+public class AIOpponentController
+	extends Thread
+{
+	/** Number of random moves played after the rated move of a rollout. */
+	private static final int HORIZON = 3;
+	
+	/** Time budget per turn, in nanoseconds. */
+	private static final long TURN_TIME = 1_000_000_000L;
+	
+	/** Opponent grid view. */
+	private Container gridView = null;
+	
+	/** Opponent model. */
+	private OpponentModel model = null;
+	
+	/** Pool to run rollouts on. */
+	private ForkJoinPool pool = null;
+	
+	/** Move search. */
+	private MonteCarloSearch search = null;
+	
+	/**
+	 * Constructor.
+	 *
+	 * @author Erik Selstam
+	 * @param model    Model to play.
+	 * @param gridView View to show the final score in.
+	 */
+	public AIOpponentController(
+		final OpponentModel model,
+		final Container     gridView)
+	{
+		// Leave one core to the user interface //
+		int threads = Runtime.getRuntime().availableProcessors() - 1;
+		
+		// Assign fields //
+		this.gridView = gridView;
+		this.model    = model;
+		this.pool     = new ForkJoinPool(Math.max(threads, 1));
+		this.search   = new MonteCarloSearch(
+			pool,
+			HORIZON,
+			new SplittableRandom().nextLong()
+		);
+	}
+	
+	/**
+	 * Stop playing. The current turn is finished first.
+	 *
+	 * @author Erik Selstam
+	 */
+	public void close() {
+		this.interrupt();
+	}
+	
+	/**
+	 * Play moves until none are left or the game is closed.
+	 *
+	 * @author Erik Selstam
+	 */
+	@Override
+	public void run() {
+		try {
+			while (!interrupted() && model.getMovesLeft() > 0) {
+				// Choose move //
+				int swap = search.chooseMove(model, TURN_TIME);
+				if (swap < 0) {
+					break;
+				}
+				
+				// Make move //
+				Coordinate from = model.getSwapSource(swap);
+				Coordinate to   = model.getSwapTarget(swap);
+				model.move(from, to);
+				model.setMovesLeft(model.getMovesLeft() - 1);
+			}
+			
+			// Show final score //
+			if (model.getMovesLeft() == 0) {
+				int score = model.getScore();
+				SwingUtilities.invokeLater(() -> {
+					gridView.removeAll();
+					gridView.add(new GameFinished(score));
+					gridView.repaint();
+					gridView.revalidate();
+				});
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,45 @@
+package matchthree.controller;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of a message received from the opponent, spanning
+ * its decoding. Handling of the message is not included.
+ *
+ * @author Erik Selstam
+ */
+@Category({"MatchThree", "Network"})
+@Description("Datagram received and decoded into a message")
+@Label("Datagram Receive")
+@Name("matchthree.DatagramReceive")
+@StackTrace(false)
+class DatagramReceiveEvent
+	extends Event
+{
+	/** Size of the received datagram. */
+	@DataAmount
+	@Label("Size")
+	private int bytes = 0;
+	
+	/** Type of the message. */
+	@Label("Message Type")
+	private String type = null;
+	
+	/**
+	 * Set the received message.
+	 *
+	 * @author Erik Selstam
+	 * @param type  Type of the message.
+	 * @param bytes Size of the received datagram.
+	 */
+	void set(final String type, final int bytes) {
+		this.bytes = bytes;
+		this.type  = type;
+	}
+}
@@ -0,0 +1,45 @@
+package matchthree.controller;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of a message sent to the opponent, spanning its
+ * encoding and sending.
+ *
+ * @author Erik Selstam
+ */
+@Category({"MatchThree", "Network"})
+@Description("Message encoded and sent as a datagram")
+@Label("Datagram Send")
+@Name("matchthree.DatagramSend")
+@StackTrace(false)
+class DatagramSendEvent
+	extends Event
+{
+	/** Size of the encoded message. */
+	@DataAmount
+	@Label("Size")
+	private int bytes = 0;
+	
+	/** Type of the message. */
+	@Label("Message Type")
+	private String type = null;
+	
+	/**
+	 * Set the sent message.
+	 *
+	 * @author Erik Selstam
+	 * @param type  Type of the message.
+	 * @param bytes Size of the encoded message.
+	 */
+	void set(final String type, final int bytes) {
+		this.bytes = bytes;
+		this.type  = type;
+	}
+}
@@ -5,22 +5,31 @@ import java.awt.Container;
 import java.awt.event.ActionEvent;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
+import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import matchthree.model.Coordinate;
 import matchthree.model.Jewel;
 import matchthree.model.MatchThreeModel;
+import matchthree.model.PlayerModel;
+import matchthree.model.Replay;
 import matchthree.model.Serialize;
 import matchthree.model.Settings;
 import matchthree.model.Settings.Style;
 import matchthree.util.AssetManager;
+import matchthree.view.BoardRenderer;
+import matchthree.view.BoardView;
 import matchthree.view.Cell;
+import matchthree.view.CellAction;
+import matchthree.view.ConfirmDialog;
 import matchthree.view.ErrorDialog;
 import matchthree.view.GridView;
 import matchthree.view.MatchThreeUI;
 import matchthree.view.MessageDialog;
+import matchthree.view.OpenDialog;
 import matchthree.view.SaveDialog;
 
 /**
@@ -38,8 +47,8 @@ public class GridViewController
 	/** Currently active cell. */
 	private Coordinate activeCell = null;
 	
-	/** Grid view. */
-	private GridView gridView = null;
+	/** Grid view, either a `GridView` or a `BoardView`. */
+	private BoardRenderer gridView = null;
 	
 	/** MatchThree model. */
 	private MatchThreeModel matchThreeModel = null;
@@ -47,6 +56,9 @@ public class GridViewController
 	/** Game view. */
 	private MatchThreeUI matchThreeUI = null;
 	
+	/** Playback of the last opened replay, if any. */
+	private ReplayController replayController = null;
+	
 	/** Reference to UI controller. */
 	private UIController uiController = null;
 	
@@ -147,20 +159,32 @@ public class GridViewController
 		this.matchThreeUI    = matchThreeUI;
 		
 		// Create view //
-		gridView = new GridView(matchThreeModel, settings.getStyle());
+		Container view = null;
+		if (BoardView.ENABLED) {
+			BoardView boardView =
+				new BoardView(matchThreeModel, settings.getStyle());
+			gridView = boardView;
+			view     = boardView;
+		} else {
+			GridView cellView =
+				new GridView(matchThreeModel, settings.getStyle());
+			for (final Cell cell : cellView.getBoard()) {
+				// Handle cell hover actions //
+				CellHoverListener listener = new CellHoverListener(cell);
+				cellView.addCellHoverListener(listener, cell);
+			}
+			gridView = cellView;
+			view     = cellView;
+		}
 		
 		// Add event listeners //
 		gridView.addBoardListener(event -> {
 			// Handle click //
 			handleAction(event);
 		});
-		for (final Cell cell : gridView.getBoard()) {
-			// Handle cell hover actions //
-			gridView.addCellHoverListener(new CellHoverListener(cell), cell);
-		}
 		
 		// Add view to parent //
-		parent.add(gridView);
+		parent.add(view);
 	}
 	
 	/**
@@ -184,7 +208,7 @@ public class GridViewController
 	}
 	
 	/**
-	 * Handle board cell action (click).
+	 * Handle board cell action (click), from either kind of grid view.
 	 *
 	 * @author Erik Selstam
 	 * @param event Event object.
@@ -195,11 +219,17 @@ public class GridViewController
 			throw new NullPointerException();
 		}
 		
+		// Ignore clicks during playback //
+		if (replayController != null && replayController.isPlaying()) {
+			return;
+		}
+		
 		// Get cell coordinates //
 		// TODO: Assert event values?
 		// TODO: Implement `clone`.
-		Cell       cell        = (Cell) event.getSource();
-		Coordinate tmp         = cell.getPosition();
+		Coordinate tmp = (event instanceof CellAction)
+			? ((CellAction) event).getPosition()
+			: ((Cell) event.getSource()).getPosition();
 		Coordinate clickedCell = new Coordinate(tmp.getX(), tmp.getY());
 		
 		// Activate cell if appropriate //
@@ -214,6 +244,17 @@ public class GridViewController
 		moveCell(from, clickedCell);
 	}
 	
+	/**
+	 * Check whether the model is played against an opponent, in which case
+	 * moves must not be taken back.
+	 *
+	 * @author Erik Selstam
+	 * @return Whether the game is a multiplayer game.
+	 */
+	private boolean isMultiplayer() {
+		return matchThreeModel instanceof PlayerModel;
+	}
+	
 	/**
 	 * Swap two cells.
 	 *
@@ -249,6 +290,91 @@ public class GridViewController
 		//matchThreeUI.update();
 	}
 	
+	/**
+	 * Open a replay and play it on the board in real time, in place of the
+	 * current game. Not available in multiplayer games.
+	 *
+	 * @author Erik Selstam
+	 */
+	protected void playReplay() {
+		// Refuse in multiplayer games //
+		if (isMultiplayer()) {
+			new ErrorDialog(
+				"Play replay not available",
+				"Replays cannot be played in multiplayer games"
+			);
+			return;
+		}
+		
+		// Get replay source //
+		File file =
+			new OpenDialog("MatchThree Replay File", "replay").getResult();
+		
+		// Cancel if no file was chosen //
+		if (file == null) {
+			return;
+		}
+		
+		// Read replay //
+		Replay replay = null;
+		try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+			replay = Replay.read(in);
+		} catch (final IOException exception) {
+			System.err.println(exception);
+			new ErrorDialog("Open replay failed", "Failed to read replay");
+			return;
+		}
+		if (replay.getWidth() != matchThreeModel.getWidth()
+			|| replay.getHeight() != matchThreeModel.getHeight())
+		{
+			new ErrorDialog(
+				"Open replay failed",
+				"Replay was recorded on a board of another size"
+			);
+			return;
+		}
+		
+		// Confirm ending the current game //
+		if (matchThreeModel.getJournal().getSize() > 0) {
+			ConfirmDialog dialog = new ConfirmDialog(
+				"Play replay",
+				"Playing the replay ends the current game. Continue?"
+			);
+			if (!dialog.getResponse()) {
+				return;
+			}
+		}
+		
+		// Start playback //
+		stopReplay();
+		setActiveCell(null);
+		replayController = new ReplayController(matchThreeModel, replay);
+		replayController.start();
+	}
+	
+	/**
+	 * Redo the last undone move. Not available in multiplayer games.
+	 *
+	 * @author Erik Selstam
+	 */
+	protected void redoMove() {
+		// Refuse in multiplayer games //
+		if (isMultiplayer()) {
+			new ErrorDialog(
+				"Redo not available",
+				"Moves cannot be redone in multiplayer games"
+			);
+			return;
+		}
+		
+		// Reset active cell //
+		stopReplay();
+		setActiveCell(null);
+		
+		// Replay move //
+		matchThreeModel.getJournal().redo();
+	}
+	
 	/**
 	 * Resets model to its initial state.
 	 *
@@ -257,6 +383,7 @@ public class GridViewController
 	 */
 	protected void restartGame() {
 		// Reset active cell //
+		stopReplay();
 		setActiveCell(null);
 		
 		// Reinitialize model //
@@ -307,7 +434,10 @@ public class GridViewController
 			
 			// Get state //
 			int score = matchThreeModel.getScore();
-			int width = matchThreeModel.getWidth();
+			int width  = matchThreeModel.getWidth();
+			int height = matchThreeModel.getHeight();
+			long seed  = matchThreeModel.getSeed();
+			long hash  = matchThreeModel.getHash();
 			
 			// Print to file //
 			out.write("MatchThree Save Data Version 1.0\n");
@@ -317,6 +447,15 @@ public class GridViewController
 			out.write("width: ");
 			out.write(String.valueOf(width));
 			out.write("\n");
+			out.write("height: ");
+			out.write(String.valueOf(height));
+			out.write("\n");
+			out.write("seed: ");
+			out.write(String.valueOf(seed));
+			out.write("\n");
+			out.write("hash: ");
+			out.write(Long.toHexString(hash));
+			out.write("\n");
 			out.write("board: ");
 			out.write(serial.toString());
 			out.write("\n");
@@ -339,6 +478,35 @@ public class GridViewController
 		new MessageDialog("Game saved", "Game saved successfully");
 	}
 	
+	/**
+	 * Save a recording of the game since it was started.
+	 *
+	 * @author Erik Selstam
+	 */
+	public void saveReplay() {
+		// Get save destination //
+		Replay replay = matchThreeModel.getJournal().getReplay();
+		File   file   =
+			new SaveDialog("MatchThree Replay File", "replay").getResult();
+		
+		// Cancel if no file was chosen //
+		if (file == null) {
+			return;
+		}
+		
+		// Save replay //
+		try (BufferedWriter out = new BufferedWriter(new FileWriter(file))) {
+			replay.write(out);
+		} catch (final IOException exception) {
+			System.err.println(exception);
+			new ErrorDialog("Save replay failed", "Failed to save replay");
+			return;
+		}
+		
+		// Display confirmation //
+		new MessageDialog("Replay saved", "Replay saved successfully");
+	}
+	
 	/**
 	 * Set or unset the currently active cell.
 	 *
@@ -360,4 +528,38 @@ public class GridViewController
 		// Update reference //
 		activeCell = position;
 	}
+	
+	/**
+	 * Stop the playback of a replay, if any.
+	 *
+	 * @author Erik Selstam
+	 */
+	private void stopReplay() {
+		if (replayController != null) {
+			replayController.stop();
+		}
+	}
+	
+	/**
+	 * Undo the last move. Not available in multiplayer games.
+	 *
+	 * @author Erik Selstam
+	 */
+	protected void undoMove() {
+		// Refuse in multiplayer games //
+		if (isMultiplayer()) {
+			new ErrorDialog(
+				"Undo not available",
+				"Moves cannot be undone in multiplayer games"
+			);
+			return;
+		}
+		
+		// Reset active cell //
+		stopReplay();
+		setActiveCell(null);
+		
+		// Revert move //
+		matchThreeModel.getJournal().undo();
+	}
 }
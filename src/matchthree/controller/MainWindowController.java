@@ -112,14 +112,30 @@ public class MainWindowController
 			// TODO: Not implemented.
 			new ErrorDialog("Function not implemented", "Open not implemented");
 		});
+		menuBar.addPlayReplayListener(event -> {
+			// Play a saved replay //
+			gridViewController.playReplay();
+		});
 		menuBar.addQuitListener(event -> {
 			// Close main window //
 			closeWindow();
 		});
+		menuBar.addRedoListener(event -> {
+			// Redo the last undone move //
+			gridViewController.redoMove();
+		});
 		menuBar.addSaveListener(event -> {
 			// Save the game //
 			gridViewController.saveGame();
 		});
+		menuBar.addSaveReplayListener(event -> {
+			// Save a replay of the game //
+			gridViewController.saveReplay();
+		});
+		menuBar.addUndoListener(event -> {
+			// Undo the last move //
+			gridViewController.undoMove();
+		});
 		window.addWindowListener(new WindowListener());
 	}
 	
@@ -113,6 +113,13 @@ public class MultiplayerSetupController
 			connect
 		);
 		
+		multiplayerMenuView.addAIListener(event -> {
+			// Start game against AI //
+			uiController.startAIGame();
+		});
+		Button ai = multiplayerMenuView.getAIButton();
+		multiplayerMenuView.addHoverListener(new HoverListener(ai), ai);
+		
 		multiplayerMenuView.addBackListener(event -> {
 			// Initiate connection //
 			back();
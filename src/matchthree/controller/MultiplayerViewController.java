@@ -173,6 +173,80 @@ public class MultiplayerViewController
 			port
 		);
 		
+		// Add view to parent //
+		addView(parent);
+		
+		// Assign fields //
+		this.host         = host;
+		this.port         = port;
+		this.uiController = uiController;
+	}
+	
+	/**
+	 * Create `MultiplayerViewController` for a game against a local AI
+	 * opponent. The opponent starts with the same board as the player.
+	 *
+	 * @author Erik Selstam
+	 * @param parent       Parent view to use.
+	 * @param uiController UI controller to use.
+	 * @param settings     Application settings.
+	 */
+	public MultiplayerViewController(
+		final Container    parent,
+		final UIController uiController,
+		final Settings     settings)
+	{
+		// Validate arguments //
+		if (parent == null) {
+			throw new IllegalArgumentException("`parent` must not be null");
+		}
+		if (uiController == null) {
+			throw new IllegalArgumentException(
+				"`uiController` must not be null"
+			);
+		}
+		if (settings == null) {
+			throw new IllegalArgumentException("`settings` must not be null");
+		}
+		
+		// Create view //
+		multiplayerView = new MultiplayerView();
+		
+		// Create models, leaving the player model offline //
+		playerModel   = new PlayerModel(null, GAME_SIZE, null, 0);
+		opponentModel = new OpponentModel(playerModel.getBoard(), GAME_SIZE);
+		
+		// Create player view //
+		playerController = new MatchThreeUIController(
+			multiplayerView.getPlayer1(),
+			uiController,
+			settings,
+			playerModel
+		);
+		
+		// Create opponent view //
+		opponentController = new OpponentUIController(
+			multiplayerView.getPlayer2(),
+			uiController,
+			settings,
+			opponentModel
+		);
+		
+		// Add view to parent //
+		addView(parent);
+		
+		// Assign fields //
+		this.uiController = uiController;
+	}
+	
+	/**
+	 * Add event listeners, and add the view to its parent.
+	 *
+	 * @author Erik Tran
+	 * @author Erik Selstam
+	 * @param parent Parent view to use.
+	 */
+	private void addView(final Container parent) {
 		// Add event listeners //
 		multiplayerView.addBackListener(event -> {
 			// Initiate connection //
@@ -183,11 +257,6 @@ public class MultiplayerViewController
 		
 		// Add view to parent //
 		parent.add(multiplayerView);
-		
-		// Assign fields //
-		this.host         = host;
-		this.port         = port;
-		this.uiController = uiController;
 	}
 	
 	/**
@@ -198,6 +267,12 @@ public class MultiplayerViewController
 	 */
 	public void closeGame() {
 		opponentController.close();
+		
+		// Skip network for AI opponent //
+		if (host == null) {
+			return;
+		}
+		
 		Server.setInGame(false);
 		try {
 			Message message = new Message(Message.MessageType.END_GAME);
@@ -7,8 +7,10 @@ import java.io.ObjectInputStream;
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.SocketException;
+import javax.swing.SwingUtilities;
 import matchthree.message.Message;
 import matchthree.message.UpdateCell;
+import matchthree.message.UpdateDelta;
 import matchthree.message.UpdateMovesLeft;
 import matchthree.message.UpdateScore;
 import matchthree.model.OpponentModel;
@@ -111,16 +113,29 @@ public class OpponentController
 		try {
 			while (!interrupted()) {
 				opponent.receive(in);
+				DatagramReceiveEvent event = new DatagramReceiveEvent();
+				event.begin();
 				ByteArrayInputStream byteInStream =
 					new ByteArrayInputStream(inBuffer);
 				ObjectInputStream inStream =
 					new ObjectInputStream(byteInStream);
 				Message m = (Message) inStream.readObject();
+				event.set(String.valueOf(m.getType()), in.getLength());
+				event.commit();
 				switch (m.getType()) {
 					case CELL_UPDATE:
 						UpdateCell c = (UpdateCell) m;
 						model.set(c.getX(), c.getY(), c.getJewelType());
 						break;
+					case DELTA_UPDATE:
+						UpdateDelta delta = (UpdateDelta) m;
+						model.apply(delta.getDelta());
+						if (model.getHash() != delta.getDelta().getHash()) {
+							System.err.println(
+								"OpponentController: Opponent board out of sync"
+							);
+						}
+						break;
 					case SCORE_UPDATE:
 						UpdateScore s = (UpdateScore) m;
 						currentScore = s.getScore();
@@ -132,10 +147,13 @@ public class OpponentController
 						model.setMovesLeft(movesLeft);
 						break;
 					case GAME_FINISHED:
-						gridView.removeAll();
-						gridView.add(new GameFinished(currentScore));
-						gridView.repaint();
-						gridView.revalidate();
+						int finalScore = currentScore;
+						SwingUtilities.invokeLater(() -> {
+							gridView.removeAll();
+							gridView.add(new GameFinished(finalScore));
+							gridView.repaint();
+							gridView.revalidate();
+						});
 						break;
 					case END_GAME:
 						uiController.changeView(UIController.View.MAIN_MENU);
@@ -3,12 +3,13 @@ package matchthree.controller;
 import java.awt.Container;
 import matchthree.model.OpponentModel;
 import matchthree.model.Settings;
+import matchthree.view.BoardView;
 import matchthree.view.GridView;
 import matchthree.view.MatchThreeUI;
 
 /**
  * Opponent UI controller. Listens for network messages and updates model
- * accordingly.
+ * accordingly, or lets a local AI play the model.
  *
  * @author Linus Aronsson
  * @author Erik Selstam
@@ -18,6 +19,9 @@ public class OpponentUIController
 	/** Default game size. */
 	private static final int GAME_SIZE = Settings.getGameSize();
 	
+	/** AI opponent (for playing without a network peer). */
+	private AIOpponentController aiController = null;
+	
 	/** Opponent controller (for receiving data from opponent). */
 	private OpponentController opponentController = null;
 	
@@ -38,6 +42,78 @@ public class OpponentUIController
 		final Settings      settings,
 		final OpponentModel opponentModel,
 		final int           port)
+	{
+		// Create view //
+		Container gridView =
+			createView(parent, uiController, settings, opponentModel);
+		
+		// Start opponent controller (UDP listener) //
+		opponentController = new OpponentController(
+			uiController,
+			settings,
+			opponentModel,
+			port,
+			gridView
+		);
+		
+		// Start listening for data on UDP port //
+		opponentController.start();
+	}
+	
+	/**
+	 * Create an opponent played by a local AI.
+	 *
+	 * @author Erik Selstam
+	 * @param parent        Parent view to use.
+	 * @param uiController  UI controller to use.
+	 * @param settings      Application settings.
+	 * @param opponentModel Model to use.
+	 */
+	public OpponentUIController(
+		final Container     parent,
+		final UIController  uiController,
+		final Settings      settings,
+		final OpponentModel opponentModel)
+	{
+		// Create view //
+		Container gridView =
+			createView(parent, uiController, settings, opponentModel);
+		
+		// Start AI opponent //
+		aiController = new AIOpponentController(opponentModel, gridView);
+		aiController.start();
+	}
+	
+	/**
+	 * Close socket and listening thread.
+	 *
+	 * @author Linus Aronsson
+	 */
+	public void close() {
+		if (opponentController != null) {
+			opponentController.close();
+		}
+		if (aiController != null) {
+			aiController.close();
+		}
+	}
+	
+	/**
+	 * Create the opponent view.
+	 *
+	 * @author Linus Aronsson
+	 * @author Erik Selstam
+	 * @param parent        Parent view to use.
+	 * @param uiController  UI controller to use.
+	 * @param settings      Application settings.
+	 * @param opponentModel Model to use.
+	 * @return The grid view.
+	 */
+	private static Container createView(
+		final Container     parent,
+		final UIController  uiController,
+		final Settings      settings,
+		final OpponentModel opponentModel)
 	{
 		// Validate arguments //
 		if (parent == null) {
@@ -64,31 +140,14 @@ public class OpponentUIController
 		);
 		
 		// Create grid //
-		Container gridView = new GridView(opponentModel, settings.getStyle());
+		Container gridView = BoardView.ENABLED
+			? new BoardView(opponentModel, settings.getStyle())
+			: new GridView(opponentModel, settings.getStyle());
 		matchThreeUI.getGrid().add(gridView);
 		
-		// Start opponent controller (UDP listener) //
-		opponentController = new OpponentController(
-			uiController,
-			settings,
-			opponentModel,
-			port,
-			gridView
-		);
-		
-		// Start listening for data on UDP port //
-		opponentController.start();
-		
 		// Add view to parent //
 		parent.add(matchThreeUI);
-	}
-	
-	/**
-	 * Close socket and listening thread.
-	 *
-	 * @author Linus Aronsson
-	 */
-	public void close() {
-		opponentController.close();
+		
+		return gridView;
 	}
 }
@@ -0,0 +1,118 @@
+package matchthree.controller;
+
+import javax.swing.Timer;
+import matchthree.model.MatchThreeModel;
+import matchthree.model.PlayerModel;
+import matchthree.model.Replay;
+
+/**
+ * Real-time playback of a recorded game. Plays each event on the model of a
+ * view at the time it was recorded, so that the view animates the game as it
+ * was played. Runs on the event dispatch thread.
+ *
+ * @author Erik Selstam
+ */
+public class ReplayController
+{
+	/** Model to play on. */
+	private MatchThreeModel model = null;
+	
+	/** Index of the next event. */
+	private int next = 0;
+	
+	/** Recording to play. */
+	private Replay replay = null;
+	
+	/** Start time of the playback, in nanoseconds. */
+	private long start = 0;
+	
+	/** Timer for the next event. */
+	private Timer timer = null;
+	
+	/**
+	 * Constructor.
+	 *
+	 * @author Erik Selstam
+	 * @param model  Model to play on. Must have the dimensions of the game,
+	 *               and must not be sent to an opponent.
+	 * @param replay Recording to play.
+	 */
+	public ReplayController(final MatchThreeModel model, final Replay replay) {
+		// Validate arguments //
+		if (model == null || replay == null) {
+			throw new NullPointerException();
+		}
+		if (model.getWidth() != replay.getWidth()
+			|| model.getHeight() != replay.getHeight())
+		{
+			throw new IllegalArgumentException(
+				"`replay` must be recorded on a board of the same size"
+			);
+		}
+		if (model instanceof PlayerModel) {
+			throw new IllegalArgumentException(
+				"`model` must not be the model of a multiplayer game"
+			);
+		}
+		
+		// Assign fields //
+		this.model  = model;
+		this.replay = replay;
+		this.timer  = new Timer(0, event -> {
+			// Play due event //
+			if (replay.apply(model, next++)) {
+				model.countMove();
+			}
+			schedule();
+		});
+		timer.setRepeats(false);
+	}
+	
+	/**
+	 * Check whether the playback is running.
+	 *
+	 * @author Erik Selstam
+	 * @return Whether events are left to play.
+	 */
+	public boolean isPlaying() {
+		return timer.isRunning();
+	}
+	
+	/**
+	 * Schedule the next event, if any.
+	 *
+	 * @author Erik Selstam
+	 */
+	private void schedule() {
+		if (next == replay.getCount()) {
+			return;
+		}
+		long elapsed = (System.nanoTime() - start) / 1_000_000;
+		long delay   = replay.getTime(next) - elapsed;
+		timer.setInitialDelay((int) Math.max(delay, 0));
+		timer.restart();
+	}
+	
+	/**
+	 * Restart the recorded game on the model and start playing it. Any game
+	 * in progress on the model is discarded, and the move counter follows
+	 * the recorded game.
+	 *
+	 * @author Erik Selstam
+	 */
+	public void start() {
+		model.init(replay.getSeed());
+		next  = 0;
+		start = System.nanoTime();
+		schedule();
+	}
+	
+	/**
+	 * Stop playing. The model is left as is.
+	 *
+	 * @author Erik Selstam
+	 */
+	public void stop() {
+		timer.stop();
+	}
+}
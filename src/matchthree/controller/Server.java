@@ -75,6 +75,26 @@ public class Server
 		}
 	}
 	
+	/**
+	 * Encode a message into the payload of a datagram.
+	 *
+	 * @author Linus Aronsson
+	 * @author Erik Selstam
+	 * @param message Message to encode.
+	 * @return The encoded message.
+	 * @throws IOException If the message cannot be serialized.
+	 */
+	public static byte[] encode(final Message message)
+		throws IOException
+	{
+		ByteArrayOutputStream byteOutStream = new ByteArrayOutputStream();
+		ObjectOutputStream outStream =
+			new ObjectOutputStream(byteOutStream);
+		outStream.writeObject(message);
+		outStream.close();
+		return byteOutStream.toByteArray();
+	}
+	
 	/**
 	 * Send a datagram to specified host/port through provided socket.
 	 *
@@ -91,17 +111,15 @@ public class Server
 		final InetAddress    host,
 		final int            port)
 	{
+		DatagramSendEvent event = new DatagramSendEvent();
+		event.begin();
 		try {
-			ByteArrayOutputStream byteOutStream = new ByteArrayOutputStream();
-			ObjectOutputStream outStream =
-				new ObjectOutputStream(byteOutStream);
-			outStream.writeObject(message);
-			outStream.flush();
-			byte[] data = byteOutStream.toByteArray();
+			byte[] data = encode(message);
 			int length = data.length;
 			DatagramPacket out = new DatagramPacket(data, length, host, port);
 			socket.send(out);
-			outStream.close();
+			event.set(String.valueOf(message.getType()), length);
+			event.commit();
 		} catch (final IOException exception) {
 			exception.printStackTrace();
 		}
@@ -183,6 +183,27 @@ public class UIController
 		this.settings.setStyle(style);
 	}
 	
+	/**
+	 * Start a multiplayer game session against a local AI opponent.
+	 *
+	 * @author Erik Selstam
+	 */
+	public void startAIGame() {
+		// Remove previous view //
+		view.removeAll();
+		
+		// Close view controller //
+		if (viewController != null) {
+			viewController.closeView();
+		}
+		
+		// Create view controller //
+		viewController = new MultiplayerViewController(view, this, settings);
+		
+		// Update window //
+		windowController.pack();
+	}
+	
 	/**
 	 * Start a multiplayer game session.
 	 *
@@ -0,0 +1,136 @@
+package matchthree.message;
+
+import java.io.Serializable;
+import matchthree.model.Jewel;
+
+/**
+ * Board update event. Holds the final value of every cell changed by one step
+ * of a move or cascade, so that observers are notified once per step instead
+ * of once per cell.
+ *
+ * @author Erik Selstam
+ */
+public final class BoardDelta
+	implements Serializable
+{
+	/** Serial identifier. */
+	private static final long serialVersionUID = 123456789L;
+	
+	/** Hash of the board after the changes. */
+	private final long hash;
+	
+	/** Row-major indices of the changed cells. */
+	private final int[] indices;
+	
+	/** New cell types, in the same order as `indices`. */
+	private final Jewel[] values;
+	
+	/** Width of the board in number of cells. */
+	private final int width;
+	
+	/**
+	 * Constructor. The arrays are owned by the event afterwards.
+	 *
+	 * @author Erik Selstam
+	 * @param width   Width of the board in number of cells.
+	 * @param indices Row-major indices of the changed cells.
+	 * @param values  New cell types, in the same order as `indices`.
+	 * @param hash    Hash of the board after the changes.
+	 */
+	public BoardDelta(
+		final int     width,
+		final int[]   indices,
+		final Jewel[] values,
+		final long    hash)
+	{
+		// Validate arguments //
+		if (indices == null || values == null) {
+			throw new NullPointerException();
+		}
+		if (indices.length != values.length) {
+			throw new IllegalArgumentException(
+				"`indices` and `values` must have the same length"
+			);
+		}
+		
+		this.hash    = hash;
+		this.indices = indices;
+		this.values  = values;
+		this.width   = width;
+	}
+	
+	/**
+	 * Get the number of changed cells.
+	 *
+	 * @author Erik Selstam
+	 * @return The number of changed cells.
+	 */
+	public int getCount() {
+		return indices.length;
+	}
+	
+	/**
+	 * Get the hash of the board after the changes, as returned by
+	 * `MatchThreeModel.getHash`.
+	 *
+	 * @author Erik Selstam
+	 * @return The board hash.
+	 */
+	public long getHash() {
+		return hash;
+	}
+	
+	/**
+	 * Get the row-major index of a changed cell.
+	 *
+	 * @author Erik Selstam
+	 * @param i Number of the change.
+	 * @return The cell index.
+	 */
+	public int getIndex(final int i) {
+		return indices[i];
+	}
+	
+	/**
+	 * Get the new type of a changed cell.
+	 *
+	 * @author Erik Selstam
+	 * @param i Number of the change.
+	 * @return The cell type.
+	 */
+	public Jewel getValue(final int i) {
+		return values[i];
+	}
+	
+	/**
+	 * Get the width of the board.
+	 *
+	 * @author Erik Selstam
+	 * @return The number of cells per row.
+	 */
+	public int getWidth() {
+		return width;
+	}
+	
+	/**
+	 * Get the X-coordinate of a changed cell.
+	 *
+	 * @author Erik Selstam
+	 * @param i Number of the change.
+	 * @return The X-coordinate.
+	 */
+	public int getX(final int i) {
+		return indices[i] % width;
+	}
+	
+	/**
+	 * Get the Y-coordinate of a changed cell.
+	 *
+	 * @author Erik Selstam
+	 * @param i Number of the change.
+	 * @return The Y-coordinate.
+	 */
+	public int getY(final int i) {
+		return indices[i] / width;
+	}
+}
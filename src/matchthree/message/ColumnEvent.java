@@ -0,0 +1,50 @@
+package matchthree.message;
+
+import matchthree.model.Jewel;
+
+/**
+ * Column update event. Sent when cells in the top part of a column have been
+ * shifted.
+ *
+ * @author Erik Selstam
+ */
+public class ColumnEvent
+{
+	/** New cell types, from the top of the column and down. */
+	private Jewel[] cells;
+	
+	/** Column index. */
+	private int x;
+	
+	/**
+	 * Constructor.
+	 *
+	 * @author Erik Selstam
+	 * @param x     Column index to embed.
+	 * @param cells Cell types to embed, from the top of the column and down.
+	 */
+	public ColumnEvent(final int x, final Jewel[] cells) {
+		this.cells = cells;
+		this.x     = x;
+	}
+	
+	/**
+	 * Get cell types.
+	 *
+	 * @author Erik Selstam
+	 * @return The cell types, from the top of the column and down.
+	 */
+	public Jewel[] getCells() {
+		return cells.clone();
+	}
+	
+	/**
+	 * Get column index.
+	 *
+	 * @author Erik Selstam
+	 * @return The column index.
+	 */
+	public int getX() {
+		return x;
+	}
+}
@@ -40,6 +40,9 @@ public class Message
 		/** Cell update. */
 		CELL_UPDATE,
 		
+		/** Board delta update. */
+		DELTA_UPDATE,
+		
 		/** Score update. */
 		SCORE_UPDATE,
 		
@@ -69,6 +72,7 @@ public class Message
 		switch (type) {
 			case ACCEPTED_GAME:  return "ACCEPTED_GAME";
 			case CELL_UPDATE:    return "CELL_UPDATE";
+			case DELTA_UPDATE:   return "DELTA_UPDATE";
 			case END_GAME:       return "END_GAME";
 			case REQUESTED_GAME: return "REQUESTED_GAME";
 			case SCORE_UPDATE:   return "SCORE_UPDATE";
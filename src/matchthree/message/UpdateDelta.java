@@ -0,0 +1,35 @@
+package matchthree.message;
+
+/**
+ * Board delta message.
+ *
+ * @author Erik Selstam
+ */
+@SuppressWarnings("serial")
+public class UpdateDelta
+	extends Message
+{
+	/** Changed cells. */
+	private BoardDelta delta;
+	
+	/**
+	 * Constructor.
+	 *
+	 * @author Erik Selstam
+	 * @param delta Changed cells to embed.
+	 */
+	public UpdateDelta(final BoardDelta delta) {
+		super(MessageType.DELTA_UPDATE);
+		this.delta = delta;
+	}
+	
+	/**
+	 * Get the changed cells.
+	 *
+	 * @author Erik Selstam
+	 * @return Changed cells.
+	 */
+	public BoardDelta getDelta() {
+		return delta;
+	}
+}
@@ -0,0 +1,923 @@
+package matchthree.model;
+
+import java.util.Arrays;
+import java.util.function.IntBinaryOperator;
+import java.util.random.RandomGenerator;
+
+/**
+ * Board storage keeping one bitmask per jewel type. Every jewel has a set of
+ * row masks and a set of column masks, so that chains can be found with
+ * shift-and-AND on whole words instead of by walking the cells one by one.
+ *
+ * <p>
+ * Lines wider than 64 cells are split over several consecutive words, with
+ * bit `n` of a line stored as bit `n % 64` of word `n / 64`.
+ * </p>
+ *
+ * <p>
+ * Cell codes are stored in tiles of 64 by 64 cells, so that walking a column
+ * stays within a few cache lines, and so that tiles which have never held a
+ * jewel are not allocated at all. Searches only scan the words of a line
+ * within reach of the changed cells.
+ * </p>
+ *
+ * <p>
+ * A Zobrist hash of the contents is kept up to date on every change. The key
+ * of each cell and jewel type is derived from the cell index with the
+ * SplitMix64 finalizer instead of being drawn from a table, so that keys need
+ * no memory on large boards and are the same in every process.
+ * </p>
+ *
+ * @author Erik Selstam
+ */
+final class BitBoard
+{
+	/** Cell code of an empty cell. */
+	static final byte EMPTY = 0;
+	
+	/** Seed increment of the SplitMix64 generator. */
+	static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+	
+	/** Number of jewel types. */
+	static final int KINDS = Jewel.values().length;
+	
+	/** Jewel types, indexed by cell code minus one. */
+	private static final Jewel[] JEWELS = Jewel.values();
+	
+	/** Base two logarithm of the number of bits in a word. */
+	private static final int WORD_SHIFT = 6;
+	
+	/** Bit index mask within a word. */
+	private static final int WORD_MASK = Long.SIZE - 1;
+	
+	/** Base two logarithm of the number of cells along a tile side. */
+	private static final int TILE_SHIFT = 6;
+	
+	/** Cell index mask within a tile side. */
+	private static final int TILE_MASK = (1 << TILE_SHIFT) - 1;
+	
+	/** Scratch buffer for columns affected by a search. */
+	private final int[] affected;
+	
+	/** Cell code at an x- and y-coordinate, for `RefillRule`. */
+	private final IntBinaryOperator cellCodes = this::code;
+	
+	/** Column masks, per jewel type. */
+	private final long[][] columns;
+	
+	/** Words per column mask. */
+	private final int columnWords;
+	
+	/** Scratch buffer for the cells a chain must touch to be reported. */
+	private final long[] filter;
+	
+	/** Scratch buffer for full chain masks. */
+	private final long[] full;
+	
+	/** Zobrist hash of the contents. */
+	private long hash = 0;
+	
+	/** Number of rows. */
+	private final int height;
+	
+	/** Row masks, per jewel type. */
+	private final long[][] rows;
+	
+	/** Words per row mask. */
+	private final int rowWords;
+	
+	/** Scratch buffer for chain start masks. */
+	private final long[] starts;
+	
+	/** Number of tiles per row of tiles. */
+	private final int tileColumns;
+	
+	/**
+	 * Cell codes, per tile in row-major order, and in row-major order within
+	 * each tile. Tiles that have never held a jewel are null.
+	 */
+	private final byte[][] tiles;
+	
+	/** Number of columns. */
+	private final int width;
+	
+	/** First word of the lines scanned by the current search. */
+	private int windowFirst = 0;
+	
+	/** Last word of the lines scanned by the current search. */
+	private int windowLast = 0;
+	
+	/**
+	 * Create an empty board.
+	 *
+	 * @author Erik Selstam
+	 * @param width  Number of columns.
+	 * @param height Number of rows.
+	 */
+	BitBoard(final int width, final int height) {
+		assert width > 0 && height > 0;
+		
+		this.width       = width;
+		this.height      = height;
+		this.rowWords    = words(width);
+		this.columnWords = words(height);
+		
+		rows    = new long[KINDS][rowWords * height];
+		columns = new long[KINDS][columnWords * width];
+		starts   = new long[Math.max(rowWords, columnWords)];
+		full     = new long[starts.length];
+		filter   = new long[starts.length];
+		affected = new int[width];
+		
+		// Allocate tile table, leaving the tiles themselves for later //
+		int tileRows = (height + TILE_MASK) >>> TILE_SHIFT;
+		tileColumns  = (width + TILE_MASK) >>> TILE_SHIFT;
+		tiles        = new byte[tileColumns * tileRows][];
+	}
+	
+	/**
+	 * Count set bits in a line, moving downwards from a bit until the first
+	 * clear bit.
+	 *
+	 * @author Erik Selstam
+	 * @param line   Mask array holding the line.
+	 * @param offset Index of the first word of the line.
+	 * @param words  Number of words in the line.
+	 * @param bit    Bit to start counting at. May be negative.
+	 * @return Number of consecutive set bits.
+	 */
+	private static int countDown(
+		final long[] line,
+		final int    offset,
+		final int    words,
+		final int    bit)
+	{
+		if (bit < 0) {
+			return 0;
+		}
+		
+		int count = 0;
+		int shift = WORD_MASK - (bit & WORD_MASK);
+		for (int word = bit >>> WORD_SHIFT; word >= 0; word--) {
+			long run = ~line[offset + word] << shift;
+			if (run != 0) {
+				return count + Long.numberOfLeadingZeros(run);
+			}
+			count += Long.SIZE - shift;
+			shift = 0;
+		}
+		return count;
+	}
+	
+	/**
+	 * Count set bits in a line, moving upwards from a bit until the first
+	 * clear bit.
+	 *
+	 * @author Erik Selstam
+	 * @param line   Mask array holding the line.
+	 * @param offset Index of the first word of the line.
+	 * @param words  Number of words in the line.
+	 * @param bit    Bit to start counting at. May be past the end of the line.
+	 * @return Number of consecutive set bits.
+	 */
+	private static int countUp(
+		final long[] line,
+		final int    offset,
+		final int    words,
+		final int    bit)
+	{
+		int count = 0;
+		int shift = bit & WORD_MASK;
+		for (int word = bit >>> WORD_SHIFT; word < words; word++) {
+			long run = ~line[offset + word] >>> shift;
+			if (run != 0) {
+				return count + Long.numberOfTrailingZeros(run);
+			}
+			count += Long.SIZE - shift;
+			shift = 0;
+		}
+		return count;
+	}
+	
+	/**
+	 * Get the number of words needed to hold a line.
+	 *
+	 * @author Erik Selstam
+	 * @param bits Number of bits in the line.
+	 * @return Number of words.
+	 */
+	private static int words(final int bits) {
+		return (bits + WORD_MASK) >>> WORD_SHIFT;
+	}
+	
+	/**
+	 * Remove all jewels from the board.
+	 *
+	 * @author Erik Selstam
+	 */
+	void clear() {
+		for (final byte[] tile : tiles) {
+			if (tile != null) {
+				Arrays.fill(tile, EMPTY);
+			}
+		}
+		for (int kind = 0; kind < KINDS; kind++) {
+			Arrays.fill(rows[kind], 0L);
+			Arrays.fill(columns[kind], 0L);
+		}
+		hash = 0;
+	}
+	
+	/**
+	 * Get the code of a cell.
+	 *
+	 * @author Erik Selstam
+	 * @param x X-coordinate of the cell.
+	 * @param y Y-coordinate of the cell.
+	 * @return The cell code.
+	 */
+	private int code(final int x, final int y) {
+		int    index = (y >>> TILE_SHIFT) * tileColumns + (x >>> TILE_SHIFT);
+		byte[] tile  = tiles[index];
+		return (tile != null)
+			? tile[((y & TILE_MASK) << TILE_SHIFT) | (x & TILE_MASK)]
+			: EMPTY;
+	}
+	
+	/**
+	 * Collect the chains of the scratch chain mask that touch the scratch
+	 * filter mask. Chains are measured on the line itself, so that chains
+	 * reaching outside the scanned window are reported whole.
+	 *
+	 * @author Erik Selstam
+	 * @param line       Mask array holding the line.
+	 * @param offset     Index of the first word of the line.
+	 * @param words      Number of words in the line.
+	 * @param index      Row or column index of the line.
+	 * @param horizontal Whether the line is a row.
+	 * @param chains     List to append found chains to.
+	 */
+	private void collectChains(
+		final long[]    line,
+		final int       offset,
+		final int       words,
+		final int       index,
+		final boolean   horizontal,
+		final ChainList chains)
+	{
+		int bit = nextBit(windowFirst << WORD_SHIFT);
+		while (bit >= 0) {
+			// Measure whole chain //
+			int start  = bit - countDown(line, offset, words, bit - 1);
+			int length = countUp(line, offset, words, start);
+			
+			// Add chains touching the filter //
+			if (filtered(start, length)) {
+				if (horizontal) {
+					chains.append(index * width + start, 1, length);
+				} else {
+					chains.append(start * width + index, width, length);
+				}
+			}
+			bit = nextBit(start + length);
+		}
+	}
+	
+	/**
+	 * Copy the contents of another board of the same size. Tiles are only
+	 * allocated where the other board has one.
+	 *
+	 * @author Erik Selstam
+	 * @param source Board to copy.
+	 */
+	void copyFrom(final BitBoard source) {
+		assert source.width == width && source.height == height;
+		
+		// Copy masks //
+		for (int kind = 0; kind < KINDS; kind++) {
+			System.arraycopy(source.rows[kind], 0, rows[kind], 0,
+				rows[kind].length);
+			System.arraycopy(source.columns[kind], 0, columns[kind], 0,
+				columns[kind].length);
+		}
+		
+		// Copy tiles //
+		for (int tile = 0; tile < tiles.length; tile++) {
+			if (source.tiles[tile] == null) {
+				if (tiles[tile] != null) {
+					Arrays.fill(tiles[tile], EMPTY);
+				}
+				continue;
+			}
+			if (tiles[tile] == null) {
+				tiles[tile] = new byte[1 << (2 * TILE_SHIFT)];
+			}
+			System.arraycopy(source.tiles[tile], 0, tiles[tile], 0,
+				tiles[tile].length);
+		}
+		hash = source.hash;
+	}
+	
+	/**
+	 * Draw a random jewel for a cell, by the rules of `RefillRule`.
+	 *
+	 * @author Erik Selstam
+	 * @param x      X-coordinate of the cell.
+	 * @param y      Y-coordinate of the cell.
+	 * @param random Generator to draw from.
+	 * @return The drawn jewel.
+	 */
+	Jewel draw(final int x, final int y, final RandomGenerator random) {
+		int code = RefillRule.draw(cellCodes, width, height, x, y, random);
+		return JEWELS[code - 1];
+	}
+	
+	/**
+	 * Check whether a range of bits in a line touches the scratch filter mask.
+	 *
+	 * @author Erik Selstam
+	 * @param bit    First bit of the range.
+	 * @param length Number of bits in the range.
+	 * @return Whether any bit of the range is set in the filter.
+	 */
+	private boolean filtered(final int bit, final int length) {
+		int first = bit >>> WORD_SHIFT;
+		int last  = (bit + length - 1) >>> WORD_SHIFT;
+		for (int word = first; word <= last; word++) {
+			long mask = filter[word];
+			if (word == first) {
+				mask &= -1L << (bit & WORD_MASK);
+			}
+			if (word == last) {
+				mask &= -1L >>> (WORD_MASK - ((bit + length - 1) & WORD_MASK));
+			}
+			if (mask != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Find the chains running through the top part of some columns. Only
+	 * the rows and columns spanned by that part are scanned.
+	 *
+	 * @author Erik Selstam
+	 * @param minimum Minimum chain length.
+	 * @param depth   Number of rows to search from the top, per column.
+	 * @param chains  List to replace with the found chains.
+	 */
+	void findChains(
+		final int       minimum,
+		final int[]     depth,
+		final ChainList chains)
+	{
+		chains.clear();
+		
+		// Collect affected columns //
+		int count  = 0;
+		int bottom = 0;
+		int left   = width;
+		int right  = -1;
+		for (int x = 0; x < width; x++) {
+			if (depth[x] > 0) {
+				affected[count++] = x;
+				bottom = Math.max(bottom, depth[x]);
+				left   = Math.min(left, x);
+				right  = x;
+			}
+		}
+		int reach = minimum - 1;
+		
+		// Vertical chains //
+		for (int i = 0; i < count; i++) {
+			int x      = affected[i];
+			int offset = x * columnWords;
+			for (int word = 0; word < columnWords; word++) {
+				int bits = depth[x] - (word << WORD_SHIFT);
+				if (bits >= Long.SIZE) {
+					filter[word] = -1L;
+				} else if (bits > 0) {
+					filter[word] = (1L << bits) - 1;
+				} else {
+					filter[word] = 0L;
+				}
+			}
+			int reached = Math.min(depth[x] + reach, height);
+			windowFirst = 0;
+			windowLast  = (reached - 1) >>> WORD_SHIFT;
+			for (int kind = 0; kind < KINDS; kind++) {
+				long[] line = columns[kind];
+				if (scanLine(line, offset, columnWords, minimum)) {
+					collectChains(line, offset, columnWords, x, false, chains);
+				}
+			}
+		}
+		
+		// Horizontal chains //
+		if (count == 0) {
+			return;
+		}
+		Arrays.fill(filter, 0L);
+		windowFirst = Math.max(left - reach, 0) >>> WORD_SHIFT;
+		windowLast  = Math.min(right + reach, width - 1) >>> WORD_SHIFT;
+		for (int y = 0; y < bottom; y++) {
+			int offset = y * rowWords;
+			for (int i = 0; i < count; i++) {
+				int x = affected[i];
+				if (depth[x] > y) {
+					filter[x >>> WORD_SHIFT] |= 1L << (x & WORD_MASK);
+				}
+			}
+			for (int kind = 0; kind < KINDS; kind++) {
+				long[] line = rows[kind];
+				if (scanLine(line, offset, rowWords, minimum)) {
+					collectChains(line, offset, rowWords, y, true, chains);
+				}
+			}
+			Arrays.fill(filter, windowFirst, windowLast + 1, 0L);
+		}
+	}
+	
+	/**
+	 * Find the chains running through a list of cells. Chains through more
+	 * than one of the cells are only reported once.
+	 *
+	 * @author Erik Selstam
+	 * @param minimum Minimum chain length.
+	 * @param cells   Row-major indices of the cells.
+	 * @param count   Number of cells to check from `cells`.
+	 * @param chains  List to replace with the found chains.
+	 */
+	void findChains(
+		final int       minimum,
+		final int[]     cells,
+		final int       count,
+		final ChainList chains)
+	{
+		chains.clear();
+		
+		for (int i = 0; i < count; i++) {
+			// Get jewel type to match //
+			int x    = cells[i] % width;
+			int y    = cells[i] / width;
+			int code = code(x, y);
+			if (code == EMPTY) {
+				continue;
+			}
+			Jewel jewel = JEWELS[code - 1];
+			
+			// Search for matches on X-axis //
+			int lengthX = horizontalLength(x, y, jewel);
+			if (lengthX >= minimum) {
+				int startX = horizontalStart(x, y, jewel);
+				chains.add(y * width + startX, 1, lengthX);
+			}
+			
+			// Search for matches on Y-axis //
+			int lengthY = verticalLength(x, y, jewel);
+			if (lengthY >= minimum) {
+				int startY = verticalStart(x, y, jewel);
+				chains.add(startY * width + x, width, lengthY);
+			}
+		}
+	}
+	
+	/**
+	 * Get the contents of a cell.
+	 *
+	 * @author Erik Selstam
+	 * @param index Row-major index of the cell.
+	 * @return The jewel in the cell, or null if empty.
+	 */
+	Jewel get(final int index) {
+		return get(index % width, index / width);
+	}
+	
+	/**
+	 * Get the contents of a cell.
+	 *
+	 * @author Erik Selstam
+	 * @param x X-coordinate of the cell.
+	 * @param y Y-coordinate of the cell.
+	 * @return The jewel in the cell, or null if empty.
+	 */
+	Jewel get(final int x, final int y) {
+		int code = code(x, y);
+		return (code != EMPTY) ? JEWELS[code - 1] : null;
+	}
+	
+	/**
+	 * Get the top part of a column with its gaps closed, as if the jewels had
+	 * fallen down. Empty cells end up at the top.
+	 *
+	 * @author Erik Selstam
+	 * @param x     X-coordinate of the column.
+	 * @param depth Number of rows from the top.
+	 * @param cells Array to store the jewels of the top part in, from the top
+	 *              and down. Must hold at least `depth` cells.
+	 */
+	void getDropped(final int x, final int depth, final Jewel[] cells) {
+		int write = depth - 1;
+		for (int y = depth - 1; y >= 0; y--) {
+			int code = code(x, y);
+			if (code != EMPTY) {
+				cells[write--] = JEWELS[code - 1];
+			}
+		}
+		Arrays.fill(cells, 0, write + 1, null);
+	}
+	
+	/**
+	 * Get the Zobrist hash of the contents.
+	 *
+	 * @author Erik Selstam
+	 * @return The hash.
+	 */
+	long getHash() {
+		return hash;
+	}
+	
+	/**
+	 * Get the number of rows.
+	 *
+	 * @author Erik Selstam
+	 * @return The number of rows.
+	 */
+	int getHeight() {
+		return height;
+	}
+	
+	/**
+	 * Get the value a cell on the line of a move would have after the move.
+	 *
+	 * @author Erik Selstam
+	 * @param horizontal Whether the move is along a row.
+	 * @param line       Index of the row or column of the move.
+	 * @param start      Source position along the line.
+	 * @param end        Destination position along the line.
+	 * @param i          Position along the line of the cell.
+	 * @return The value of the cell after the move.
+	 */
+	private Jewel getMoved(
+		final boolean horizontal,
+		final int     line,
+		final int     start,
+		final int     end,
+		final int     i)
+	{
+		// Find the cell the value is taken from //
+		int source = i;
+		if (i == end) {
+			source = start;
+		} else if (Math.min(start, end) <= i && i <= Math.max(start, end)) {
+			source = (end > start) ? i + 1 : i - 1;
+		}
+		
+		return horizontal ? get(source, line) : get(line, source);
+	}
+	
+	/**
+	 * Get the number of columns.
+	 *
+	 * @author Erik Selstam
+	 * @return The number of columns.
+	 */
+	int getWidth() {
+		return width;
+	}
+	
+	/**
+	 * Measure the horizontal run of a jewel through a cell, as if the cell
+	 * held that jewel.
+	 *
+	 * @author Erik Selstam
+	 * @param x     X-coordinate of the cell.
+	 * @param y     Y-coordinate of the cell.
+	 * @param jewel Jewel type to measure.
+	 * @return Column of the first cell in the run.
+	 */
+	int horizontalStart(final int x, final int y, final Jewel jewel) {
+		long[] line = rows[jewel.ordinal()];
+		return x - countDown(line, y * rowWords, rowWords, x - 1);
+	}
+	
+	/**
+	 * Measure the length of the horizontal run of a jewel through a cell, as
+	 * if the cell held that jewel.
+	 *
+	 * @author Erik Selstam
+	 * @param x     X-coordinate of the cell.
+	 * @param y     Y-coordinate of the cell.
+	 * @param jewel Jewel type to measure.
+	 * @return Number of cells in the run.
+	 */
+	int horizontalLength(final int x, final int y, final Jewel jewel) {
+		long[] line   = rows[jewel.ordinal()];
+		int    offset = y * rowWords;
+		return 1
+			+ countDown(line, offset, rowWords, x - 1)
+			+ countUp(line, offset, rowWords, x + 1);
+	}
+	
+	/**
+	 * Check whether a move would create a chain, without changing the board.
+	 * Moving a cell shifts the cells between the source and the destination
+	 * one step back towards the source.
+	 *
+	 * @author Erik Selstam
+	 * @param horizontal Whether the move is along a row.
+	 * @param line       Index of the row or column of the move.
+	 * @param start      Source position along the line.
+	 * @param end        Destination position along the line. Must differ
+	 *                   from `start`.
+	 * @param minimum    Minimum chain length.
+	 * @return Whether the move is legal.
+	 */
+	boolean isLegalMove(
+		final boolean horizontal,
+		final int     line,
+		final int     start,
+		final int     end,
+		final int     minimum)
+	{
+		int length = horizontal ? width : height;
+		int step   = (end > start) ? 1 : -1;
+		
+		// Check swaps of two different jewels on the masks //
+		if (end - start == step) {
+			int first  = Math.min(start, end);
+			int x      = horizontal ? first : line;
+			int y      = horizontal ? line : first;
+			int code   = code(x, y);
+			int second = horizontal ? code(x + 1, y) : code(x, y + 1);
+			if (code != EMPTY && second != EMPTY && code != second) {
+				return isLegalSwap(
+					horizontal, line, first, code - 1, second - 1, minimum
+				);
+			}
+		}
+		
+		// Look for chains through the moved cells //
+		for (int i = start; i != end + step; i += step) {
+			Jewel jewel = getMoved(horizontal, line, start, end, i);
+			if (jewel == null) {
+				continue;
+			}
+			
+			// Search for matches across the line //
+			int across = horizontal
+				? verticalLength(i, line, jewel)
+				: horizontalLength(line, i, jewel);
+			if (across >= minimum) {
+				return true;
+			}
+			
+			// Search for matches along the line //
+			int along = 1;
+			for (int j = i - 1;
+				j >= 0 && getMoved(horizontal, line, start, end, j) == jewel;
+				j--)
+			{
+				along++;
+			}
+			for (int j = i + 1; j < length
+				&& getMoved(horizontal, line, start, end, j) == jewel; j++)
+			{
+				along++;
+			}
+			if (along >= minimum) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Check whether swapping two adjacent cells holding different jewels
+	 * would create a chain. Each jewel can only complete a chain across the
+	 * line at its new position, or along the line on the side facing away
+	 * from the other jewel, so the runs are measured on the masks without
+	 * visiting the cells.
+	 *
+	 * @author Erik Selstam
+	 * @param horizontal Whether the swap is along a row.
+	 * @param line       Index of the row or column of the swap.
+	 * @param first      Position along the line of the first cell.
+	 * @param firstKind  Jewel type index of the first cell.
+	 * @param secondKind Jewel type index of the second cell.
+	 * @param minimum    Minimum chain length.
+	 * @return Whether the swap is legal.
+	 */
+	private boolean isLegalSwap(
+		final boolean horizontal,
+		final int     line,
+		final int     first,
+		final int     firstKind,
+		final int     secondKind,
+		final int     minimum)
+	{
+		// Get the masks along and across the line //
+		long[][] along       = horizontal ? rows : columns;
+		long[][] across      = horizontal ? columns : rows;
+		int      alongWords  = horizontal ? rowWords : columnWords;
+		int      acrossWords = horizontal ? columnWords : rowWords;
+		int      offset      = line * alongWords;
+		
+		// Measure the second jewel, moved to the first position //
+		long[] mask  = across[secondKind];
+		int    start = first * acrossWords;
+		if (1 + countDown(mask, start, acrossWords, line - 1)
+			+ countUp(mask, start, acrossWords, line + 1) >= minimum
+			|| 1 + countDown(along[secondKind], offset, alongWords, first - 1)
+			>= minimum)
+		{
+			return true;
+		}
+		
+		// Measure the first jewel, moved to the second position //
+		mask  = across[firstKind];
+		start = (first + 1) * acrossWords;
+		return 1 + countDown(mask, start, acrossWords, line - 1)
+			+ countUp(mask, start, acrossWords, line + 1) >= minimum
+			|| 1 + countUp(along[firstKind], offset, alongWords, first + 2)
+			>= minimum;
+	}
+	
+	/**
+	 * Get the Zobrist key of a jewel type in a cell.
+	 *
+	 * @author Erik Selstam
+	 * @param x    X-coordinate of the cell.
+	 * @param y    Y-coordinate of the cell.
+	 * @param code Cell code of the jewel type. Must not be empty.
+	 * @return The key.
+	 */
+	private long key(final int x, final int y, final int code) {
+		long z = (((long) y * width + x) * KINDS + code) * GOLDEN_GAMMA;
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+	
+	/**
+	 * Find the next set bit in the scanned window of the scratch chain mask.
+	 *
+	 * @author Erik Selstam
+	 * @param bit Bit to start searching at.
+	 * @return The index of the next set bit, or -1 if none.
+	 */
+	private int nextBit(final int bit) {
+		int word = bit >>> WORD_SHIFT;
+		if (word > windowLast) {
+			return -1;
+		}
+		long value = full[word] & (-1L << (bit & WORD_MASK));
+		while (value == 0) {
+			if (++word > windowLast) {
+				return -1;
+			}
+			value = full[word];
+		}
+		return (word << WORD_SHIFT) + Long.numberOfTrailingZeros(value);
+	}
+	
+	/**
+	 * Set the contents of a cell.
+	 *
+	 * @author Erik Selstam
+	 * @param x     X-coordinate of the cell.
+	 * @param y     Y-coordinate of the cell.
+	 * @param jewel Jewel to store, or null to empty the cell.
+	 */
+	void put(final int x, final int y, final Jewel jewel) {
+		int  rowWord    = y * rowWords + (x >>> WORD_SHIFT);
+		int  columnWord = x * columnWords + (y >>> WORD_SHIFT);
+		long rowBit     = 1L << (x & WORD_MASK);
+		long columnBit  = 1L << (y & WORD_MASK);
+		
+		// Remove old jewel from masks //
+		int tile = (y >>> TILE_SHIFT) * tileColumns + (x >>> TILE_SHIFT);
+		int cell = ((y & TILE_MASK) << TILE_SHIFT) | (x & TILE_MASK);
+		int old  = (tiles[tile] != null) ? tiles[tile][cell] : EMPTY;
+		if (old != EMPTY) {
+			rows[old - 1][rowWord]       &= ~rowBit;
+			columns[old - 1][columnWord] &= ~columnBit;
+			hash ^= key(x, y, old);
+		}
+		
+		// Add new jewel to masks //
+		if (jewel == null) {
+			if (old != EMPTY) {
+				tiles[tile][cell] = EMPTY;
+			}
+			return;
+		}
+		if (tiles[tile] == null) {
+			tiles[tile] = new byte[1 << (2 * TILE_SHIFT)];
+		}
+		int kind = jewel.ordinal();
+		tiles[tile][cell] = (byte) (kind + 1);
+		rows[kind][rowWord]       |= rowBit;
+		columns[kind][columnWord] |= columnBit;
+		hash ^= key(x, y, kind + 1);
+	}
+	
+	/**
+	 * Compute the chains of a line into the scratch chain mask. Chain starts
+	 * are the AND of the line shifted by each offset up to the minimum
+	 * length, and the chains are the OR of the starts shifted back. Only the
+	 * words of the scanned window are computed.
+	 *
+	 * @author Erik Selstam
+	 * @param line    Mask array holding the line.
+	 * @param offset  Index of the first word of the line.
+	 * @param words   Number of words in the line.
+	 * @param minimum Minimum chain length.
+	 * @return Whether the line contains any chains.
+	 */
+	private boolean scanLine(
+		final long[] line,
+		final int    offset,
+		final int    words,
+		final int    minimum)
+	{
+		// Find chain starts //
+		long any = 0;
+		for (int word = windowFirst; word <= windowLast; word++) {
+			long value = line[offset + word];
+			long next  = (word + 1 < words) ? line[offset + word + 1] : 0;
+			long mask  = value;
+			for (int shift = 1; shift < minimum; shift++) {
+				mask &= (value >>> shift) | (next << (Long.SIZE - shift));
+			}
+			starts[word] = mask;
+			any |= mask;
+		}
+		if (any == 0) {
+			return false;
+		}
+		
+		// Extend starts into whole chains //
+		for (int word = windowFirst; word <= windowLast; word++) {
+			long value = starts[word];
+			long last  = (word > windowFirst) ? starts[word - 1] : 0;
+			long mask  = value;
+			for (int shift = 1; shift < minimum; shift++) {
+				mask |= (value << shift) | (last >>> (Long.SIZE - shift));
+			}
+			full[word] = mask;
+		}
+		return true;
+	}
+	
+	/**
+	 * Copy the board into an array of jewels.
+	 *
+	 * @author Erik Selstam
+	 * @return Board contents in row-major order.
+	 */
+	Jewel[] toArray() {
+		Jewel[] out = new Jewel[width * height];
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				out[y * width + x] = get(x, y);
+			}
+		}
+		return out;
+	}
+	
+	/**
+	 * Measure the vertical run of a jewel through a cell, as if the cell held
+	 * that jewel.
+	 *
+	 * @author Erik Selstam
+	 * @param x     X-coordinate of the cell.
+	 * @param y     Y-coordinate of the cell.
+	 * @param jewel Jewel type to measure.
+	 * @return Row of the first cell in the run.
+	 */
+	int verticalStart(final int x, final int y, final Jewel jewel) {
+		long[] line = columns[jewel.ordinal()];
+		return y - countDown(line, x * columnWords, columnWords, y - 1);
+	}
+	
+	/**
+	 * Measure the length of the vertical run of a jewel through a cell, as if
+	 * the cell held that jewel.
+	 *
+	 * @author Erik Selstam
+	 * @param x     X-coordinate of the cell.
+	 * @param y     Y-coordinate of the cell.
+	 * @param jewel Jewel type to measure.
+	 * @return Number of cells in the run.
+	 */
+	int verticalLength(final int x, final int y, final Jewel jewel) {
+		long[] line   = columns[jewel.ordinal()];
+		int    offset = x * columnWords;
+		return 1
+			+ countDown(line, offset, columnWords, y - 1)
+			+ countUp(line, offset, columnWords, y + 1);
+	}
+}
@@ -0,0 +1,126 @@
+package matchthree.model;
+
+/**
+ * Outcome of a move resolved by a `CascadeResolver`.
+ *
+ * @author Erik Selstam
+ */
+public final class Cascade
+{
+	/** Board after the move, as cell codes in row-major order. */
+	private final byte[] board;
+	
+	/** Number of cells cleared, per cascade step. */
+	private final int[] cleared;
+	
+	/** Score gained, per cascade step. */
+	private final int[] points;
+	
+	/** Total score gained. */
+	private final int score;
+	
+	/** Number of cascade steps. */
+	private final int steps;
+	
+	/**
+	 * Constructor.
+	 *
+	 * @author Erik Selstam
+	 * @param board   Board after the move.
+	 * @param cleared Number of cells cleared, per step. Not copied.
+	 * @param points  Score gained, per step. Not copied.
+	 * @param steps   Number of steps.
+	 */
+	Cascade(
+		final byte[] board,
+		final int[]  cleared,
+		final int[]  points,
+		final int    steps)
+	{
+		int score = 0;
+		for (int step = 0; step < steps; step++) {
+			score += points[step];
+		}
+		
+		this.board   = board;
+		this.cleared = cleared;
+		this.points  = points;
+		this.score   = score;
+		this.steps   = steps;
+	}
+	
+	/**
+	 * Get the board after the move. The array is owned by the caller.
+	 *
+	 * @author Erik Selstam
+	 * @return Cell codes in row-major order: 0 for an empty cell, or the
+	 *         ordinal of the jewel plus one.
+	 */
+	public byte[] getBoard() {
+		return board;
+	}
+	
+	/**
+	 * Get the number of cells cleared by a cascade step. Cells in two
+	 * crossing chains are counted once.
+	 *
+	 * @author Erik Selstam
+	 * @param step Index of the step.
+	 * @return The number of cleared cells.
+	 */
+	public int getCleared(final int step) {
+		// Validate argument //
+		if (step < 0 || step >= steps) {
+			throw new IndexOutOfBoundsException();
+		}
+		
+		return cleared[step];
+	}
+	
+	/**
+	 * Get the score gained by a cascade step.
+	 *
+	 * @author Erik Selstam
+	 * @param step Index of the step.
+	 * @return The gained score.
+	 */
+	public int getPoints(final int step) {
+		// Validate argument //
+		if (step < 0 || step >= steps) {
+			throw new IndexOutOfBoundsException();
+		}
+		
+		return points[step];
+	}
+	
+	/**
+	 * Get the total score gained by the move.
+	 *
+	 * @author Erik Selstam
+	 * @return The gained score.
+	 */
+	public int getScore() {
+		return score;
+	}
+	
+	/**
+	 * Get the number of cascade steps of the move.
+	 *
+	 * @author Erik Selstam
+	 * @return The number of steps, or 0 if the move was illegal.
+	 */
+	public int getStepCount() {
+		return steps;
+	}
+	
+	/**
+	 * Check whether the move was legal. Illegal moves leave the board as it
+	 * was.
+	 *
+	 * @author Erik Selstam
+	 * @return Whether the move created a chain.
+	 */
+	public boolean isLegal() {
+		return steps > 0;
+	}
+}
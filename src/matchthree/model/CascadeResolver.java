@@ -0,0 +1,331 @@
+package matchthree.model;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Resolution of moves on compact boards, for offline analysis.
+ *
+ * <p>
+ * A board is a `byte` array of cell codes in row-major order: 0 for an empty
+ * cell, or the ordinal of the jewel plus one. A move is resolved on a copy of
+ * the board, following the rules of `MatchThreeModel`: the moved cells are
+ * shifted, chains are cleared, cells drop and the board is refilled, step by
+ * step until no chains are left. Refills are drawn by the same
+ * `RefillRule` as the model draws them, so a model and a resolver given
+ * generators with the same seed refill the same way. The board is not
+ * reshuffled when no legal moves are left.
+ * </p>
+ *
+ * <p>
+ * The resolver sends no notifications and is immutable. Each call keeps its
+ * scratch memory to itself, so one resolver is safe to call from many
+ * threads at once, each with its own generator. The only shared state it
+ * writes is the fallback counter of `EngineStats`, which is atomic, and is
+ * only written while statistics are enabled.
+ * </p>
+ *
+ * @author Erik Selstam
+ */
+public final class CascadeResolver
+{
+	/** Cell code of an empty cell. */
+	private static final byte EMPTY = 0;
+	
+	/** Jewel types, indexed by cell code minus one. */
+	private static final Jewel[] JEWELS = Jewel.values();
+	
+	/** Minimum chain length. */
+	private static final int MINIMUM_LENGTH = 3;
+	
+	/** Score per cell of a chain. */
+	private static final int POINTS = 100;
+	
+	/** Number of rows. */
+	private final int height;
+	
+	/** Number of columns. */
+	private final int width;
+	
+	/**
+	 * Scratch memory of one call to `resolve`.
+	 *
+	 * @author Erik Selstam
+	 */
+	private final class Pass
+	{
+		/** Cell code at an x- and y-coordinate, for `RefillRule`. */
+		private final IntBinaryOperator cellCodes = this::code;
+		
+		/** Board being resolved. */
+		private final byte[] cells;
+		
+		/** Number of cells cleared, per cascade step. */
+		private int[] cleared = new int[4];
+		
+		/** Number of changed rows from the top, per column. */
+		private final int[] depths = new int[width];
+		
+		/** Cells of the chains found by the last search. */
+		private final boolean[] marks = new boolean[width * height];
+		
+		/** Score gained, per cascade step. */
+		private int[] points = new int[4];
+		
+		/** Number of cascade steps. */
+		private int steps = 0;
+		
+		/**
+		 * Create scratch memory for a board.
+		 *
+		 * @author Erik Selstam
+		 * @param cells Board to resolve. Changed in place.
+		 */
+		Pass(final byte[] cells) {
+			this.cells = cells;
+		}
+		
+		/**
+		 * Clear marked cells and drop the cells above them, column by
+		 * column. The marks are cleared, and the number of changed rows is
+		 * stored per column.
+		 *
+		 * @author Erik Selstam
+		 * @return Number of cleared cells.
+		 */
+		private int clear() {
+			int count = 0;
+			for (int x = 0; x < width; x++) {
+				// Find the lowest marked cell //
+				int depth = 0;
+				for (int y = height - 1; y >= 0; y--) {
+					if (marks[y * width + x]) {
+						depth = y + 1;
+						break;
+					}
+				}
+				depths[x] = depth;
+				
+				// Compact the column above it //
+				int target = depth - 1;
+				for (int y = depth - 1; y >= 0; y--) {
+					int i = y * width + x;
+					if (marks[i]) {
+						marks[i] = false;
+						count++;
+						continue;
+					}
+					cells[target-- * width + x] = cells[i];
+				}
+				for (int y = target; y >= 0; y--) {
+					cells[y * width + x] = EMPTY;
+				}
+			}
+			return count;
+		}
+		
+		/**
+		 * Get the code of a cell.
+		 *
+		 * @author Erik Selstam
+		 * @param x X-coordinate of the cell.
+		 * @param y Y-coordinate of the cell.
+		 * @return The cell code.
+		 */
+		private int code(final int x, final int y) {
+			return cells[y * width + x];
+		}
+		
+		/**
+		 * Mark the cells of all chains.
+		 *
+		 * @author Erik Selstam
+		 * @return Score of the chains. Cells in two crossing chains score
+		 *         twice.
+		 */
+		private int mark() {
+			int score = 0;
+			
+			// Mark runs along rows //
+			for (int y = 0; y < height; y++) {
+				int row   = y * width;
+				int start = 0;
+				for (int x = 1; x <= width; x++) {
+					int first = row + start;
+					if (x < width && cells[row + x] == cells[first]) {
+						continue;
+					}
+					if (x - start >= MINIMUM_LENGTH && cells[first] != EMPTY) {
+						Arrays.fill(marks, first, row + x, true);
+						score += (x - start) * POINTS;
+					}
+					start = x;
+				}
+			}
+			
+			// Mark runs along columns //
+			for (int x = 0; x < width; x++) {
+				int start = 0;
+				for (int y = 1; y <= height; y++) {
+					int first = start * width + x;
+					if (y < height && cells[y * width + x] == cells[first]) {
+						continue;
+					}
+					if (y - start >= MINIMUM_LENGTH && cells[first] != EMPTY) {
+						for (int i = start; i < y; i++) {
+							marks[i * width + x] = true;
+						}
+						score += (y - start) * POINTS;
+					}
+					start = y;
+				}
+			}
+			
+			return score;
+		}
+		
+		/**
+		 * Clear chains until none are left, refilling the board after each
+		 * step.
+		 *
+		 * @author Erik Selstam
+		 * @param refills Generator to draw refills from.
+		 */
+		void settle(final SplittableRandom refills) {
+			for (int gain = mark(); gain > 0; gain = mark()) {
+				// Grow trace //
+				if (steps == points.length) {
+					cleared = Arrays.copyOf(cleared, steps * 2);
+					points  = Arrays.copyOf(points, steps * 2);
+				}
+				
+				// Clear, drop and refill cells //
+				points[steps]    = gain;
+				cleared[steps++] = clear();
+				for (int x = 0; x < width; x++) {
+					for (int y = 0; y < depths[x]; y++) {
+						if (cells[y * width + x] == EMPTY) {
+							cells[y * width + x] = (byte) RefillRule.draw(
+								cellCodes, width, height, x, y, refills
+							);
+						}
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Create a resolver for boards of one size.
+	 *
+	 * @author Erik Selstam
+	 * @param width  Number of columns.
+	 * @param height Number of rows.
+	 */
+	public CascadeResolver(final int width, final int height) {
+		// Validate arguments //
+		if (width <= 0 || height <= 0) {
+			throw new IllegalArgumentException(
+				"`width` and `height` must be greater than 0"
+			);
+		}
+		
+		// Assign fields //
+		this.height = height;
+		this.width  = width;
+	}
+	
+	/**
+	 * Decode a board into jewels.
+	 *
+	 * @author Erik Selstam
+	 * @param codes Cell codes.
+	 * @return Jewels, with null for empty cells.
+	 */
+	public static Jewel[] decode(final byte[] codes) {
+		Jewel[] jewels = new Jewel[codes.length];
+		for (int i = 0; i < codes.length; i++) {
+			jewels[i] = (codes[i] != EMPTY) ? JEWELS[codes[i] - 1] : null;
+		}
+		return jewels;
+	}
+	
+	/**
+	 * Encode jewels into a board.
+	 *
+	 * @author Erik Selstam
+	 * @param jewels Jewels, with null for empty cells.
+	 * @return Cell codes.
+	 */
+	public static byte[] encode(final Jewel[] jewels) {
+		byte[] codes = new byte[jewels.length];
+		for (int i = 0; i < jewels.length; i++) {
+			if (jewels[i] != null) {
+				codes[i] = (byte) (jewels[i].ordinal() + 1);
+			}
+		}
+		return codes;
+	}
+	
+	/**
+	 * Resolve a move. Moving a cell shifts the cells between the source and
+	 * the destination one step back towards the source. The board must hold
+	 * no chains before the move.
+	 *
+	 * @author Erik Selstam
+	 * @param board   Board to move on. Not changed.
+	 * @param from    Row-major index of the source cell.
+	 * @param to      Row-major index of the destination cell, on the same row
+	 *                or column as the source.
+	 * @param refills Generator to draw refills from.
+	 * @return The resulting board, score and cascade trace.
+	 */
+	public Cascade resolve(
+		final byte[]           board,
+		final int              from,
+		final int              to,
+		final SplittableRandom refills)
+	{
+		// Validate arguments //
+		if (board == null || refills == null) {
+			throw new NullPointerException();
+		}
+		if (board.length != width * height) {
+			throw new IllegalArgumentException(
+				"`board` must hold `width * height` cells"
+			);
+		}
+		if (from < 0 || to < 0 || from >= board.length || to >= board.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (from / width != to / width && from % width != to % width) {
+			throw new IllegalArgumentException(
+				"`from` and `to` must be on the same row or column"
+			);
+		}
+		
+		// Shift cells towards the source, and place source at destination //
+		byte[] cells = board.clone();
+		int    step  = (from / width == to / width) ? 1 : width;
+		if (to < from) {
+			step = -step;
+		}
+		for (int i = from; i != to; i += step) {
+			cells[i] = board[i + step];
+		}
+		cells[to] = board[from];
+		
+		// Clear chains until none are left //
+		Pass pass = new Pass(cells);
+		pass.settle(refills);
+		
+		// Leave board as it was after an illegal move //
+		return new Cascade(
+			(pass.steps > 0) ? cells : board.clone(),
+			Arrays.copyOf(pass.cleared, pass.steps),
+			Arrays.copyOf(pass.points, pass.steps),
+			pass.steps
+		);
+	}
+}
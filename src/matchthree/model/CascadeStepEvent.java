@@ -0,0 +1,49 @@
+package matchthree.model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of one cascade step of a move, in which chains are
+ * cleared and the board is refilled.
+ *
+ * @author Erik Selstam
+ */
+@Category({"MatchThree", "Engine"})
+@Description("Cascade step clearing chains and refilling the board")
+@Label("Cascade Step")
+@Name("matchthree.CascadeStep")
+@StackTrace(false)
+final class CascadeStepEvent
+	extends Event
+{
+	/** Number of cleared chain cells. */
+	@Label("Cleared Cells")
+	private final int cleared;
+	
+	/** Number of the step within its cascade, from 1. */
+	@Label("Depth")
+	private final int depth;
+	
+	/** Number of refilled cells. */
+	@Label("Refilled Cells")
+	private final int refills;
+	
+	/**
+	 * Constructor.
+	 *
+	 * @author Erik Selstam
+	 * @param depth   Number of the step within its cascade, from 1.
+	 * @param cleared Number of cleared chain cells.
+	 * @param refills Number of refilled cells.
+	 */
+	CascadeStepEvent(final int depth, final int cleared, final int refills) {
+		this.cleared = cleared;
+		this.depth   = depth;
+		this.refills = refills;
+	}
+}
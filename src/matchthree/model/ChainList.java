@@ -0,0 +1,148 @@
+package matchthree.model;
+
+import java.util.Arrays;
+
+/**
+ * Reusable list of chains, stored as row-major cell indices in flat primitive
+ * buffers. The buffers only ever grow, so a list that has been used once does
+ * not allocate when searched again.
+ *
+ * @author Erik Selstam
+ */
+final class ChainList
+{
+	/** Initial buffer capacity. */
+	private static final int INITIAL_CAPACITY = 16;
+	
+	/** Cell indices of all chains, back to back. */
+	private int[] cells = new int[INITIAL_CAPACITY];
+	
+	/** Number of chains. */
+	private int count = 0;
+	
+	/** End offset in `cells` of each chain. */
+	private int[] ends = new int[INITIAL_CAPACITY];
+	
+	/** Number of cells in all chains. */
+	private int size = 0;
+	
+	/**
+	 * Create an empty list.
+	 *
+	 * @author Erik Selstam
+	 */
+	ChainList() { }
+	
+	/**
+	 * Add a straight chain, unless the list already holds it.
+	 *
+	 * @author Erik Selstam
+	 * @param start  Index of the first cell.
+	 * @param step   Index distance between consecutive cells.
+	 * @param length Number of cells.
+	 */
+	void add(final int start, final int step, final int length) {
+		// Skip chains with the same end points //
+		int last = start + step * (length - 1);
+		for (int chain = 0; chain < count; chain++) {
+			if (cells[getStart(chain)] == start
+				&& cells[getEnd(chain) - 1] == last)
+			{
+				return;
+			}
+		}
+		
+		append(start, step, length);
+	}
+	
+	/**
+	 * Add a straight chain without looking for duplicates. For searches that
+	 * visit every line once, and so cannot find the same chain twice.
+	 *
+	 * @author Erik Selstam
+	 * @param start  Index of the first cell.
+	 * @param step   Index distance between consecutive cells.
+	 * @param length Number of cells.
+	 */
+	void append(final int start, final int step, final int length) {
+		// Grow buffers //
+		if (size + length > cells.length) {
+			int capacity = Math.max(cells.length * 2, size + length);
+			cells = Arrays.copyOf(cells, capacity);
+		}
+		if (count == ends.length) {
+			ends = Arrays.copyOf(ends, ends.length * 2);
+		}
+		
+		// Store chain //
+		for (int i = 0; i < length; i++) {
+			cells[size++] = start + step * i;
+		}
+		ends[count++] = size;
+	}
+	
+	/**
+	 * Remove all chains.
+	 *
+	 * @author Erik Selstam
+	 */
+	void clear() {
+		count = 0;
+		size  = 0;
+	}
+	
+	/**
+	 * Get a cell index.
+	 *
+	 * @author Erik Selstam
+	 * @param offset Offset of the cell, between the start and end offsets of
+	 *               a chain.
+	 * @return Row-major index of the cell.
+	 */
+	int getCell(final int offset) {
+		return cells[offset];
+	}
+	
+	/**
+	 * Get the number of chains.
+	 *
+	 * @author Erik Selstam
+	 * @return The number of chains.
+	 */
+	int getCount() {
+		return count;
+	}
+	
+	/**
+	 * Get the end offset of a chain.
+	 *
+	 * @author Erik Selstam
+	 * @param chain Chain number.
+	 * @return Offset one past the last cell of the chain.
+	 */
+	int getEnd(final int chain) {
+		return ends[chain];
+	}
+	
+	/**
+	 * Get the start offset of a chain.
+	 *
+	 * @author Erik Selstam
+	 * @param chain Chain number.
+	 * @return Offset of the first cell of the chain.
+	 */
+	int getStart(final int chain) {
+		return (chain > 0) ? ends[chain - 1] : 0;
+	}
+	
+	/**
+	 * Get the number of cells in all chains. Cells in two crossing chains are
+	 * counted twice.
+	 *
+	 * @author Erik Selstam
+	 * @return The number of cells.
+	 */
+	int getSize() {
+		return size;
+	}
+}
@@ -0,0 +1,114 @@
+package matchthree.model;
+
+import java.util.Arrays;
+import matchthree.message.BoardDelta;
+
+/**
+ * Reusable set of changed cells, kept as row-major indices in insertion
+ * order. Adding a cell that is already in the set does nothing. The index
+ * buffer only grows with the number of cells changed at once, not with the
+ * size of the board.
+ *
+ * @author Erik Selstam
+ */
+final class ChangeSet
+{
+	/** Initial buffer capacity. */
+	private static final int INITIAL_CAPACITY = 16;
+	
+	/** Base two logarithm of the number of bits in a word. */
+	private static final int WORD_SHIFT = 6;
+	
+	/** Number of cells in the set. */
+	private int count = 0;
+	
+	/** Cell indices, in insertion order. */
+	private int[] indices = new int[INITIAL_CAPACITY];
+	
+	/** Membership mask, one bit per cell. */
+	private final long[] members;
+	
+	/**
+	 * Create an empty set.
+	 *
+	 * @author Erik Selstam
+	 * @param cells Number of cells on the board.
+	 */
+	ChangeSet(final int cells) {
+		members = new long[(cells - 1) / Long.SIZE + 1];
+	}
+	
+	/**
+	 * Add a cell.
+	 *
+	 * @author Erik Selstam
+	 * @param index Row-major index of the cell.
+	 */
+	void add(final int index) {
+		long mask = 1L << index;
+		int  word = index >>> WORD_SHIFT;
+		if ((members[word] & mask) != 0) {
+			return;
+		}
+		
+		// Grow buffer //
+		if (count == indices.length) {
+			indices = Arrays.copyOf(indices, indices.length * 2);
+		}
+		
+		members[word] |= mask;
+		indices[count++] = index;
+	}
+	
+	/**
+	 * Remove all cells.
+	 *
+	 * @author Erik Selstam
+	 */
+	void clear() {
+		for (int i = 0; i < count; i++) {
+			members[indices[i] >>> WORD_SHIFT] = 0;
+		}
+		count = 0;
+	}
+	
+	/**
+	 * Remove all cells, and get them as a delta of their current values.
+	 *
+	 * @author Erik Selstam
+	 * @param board Board holding the cells.
+	 * @return The changed cells.
+	 */
+	BoardDelta drain(final BitBoard board) {
+		// Collect final cell values //
+		int[]   cells  = Arrays.copyOf(indices, count);
+		Jewel[] values = new Jewel[count];
+		for (int i = 0; i < count; i++) {
+			values[i] = board.get(cells[i]);
+		}
+		clear();
+		
+		return new BoardDelta(board.getWidth(), cells, values, board.getHash());
+	}
+	
+	/**
+	 * Get a cell.
+	 *
+	 * @author Erik Selstam
+	 * @param i Number of the cell, in insertion order.
+	 * @return Row-major index of the cell.
+	 */
+	int get(final int i) {
+		return indices[i];
+	}
+	
+	/**
+	 * Get the number of cells.
+	 *
+	 * @author Erik Selstam
+	 * @return The number of cells in the set.
+	 */
+	int getCount() {
+		return count;
+	}
+}
@@ -0,0 +1,239 @@
+package matchthree.model;
+
+/**
+ * Bookkeeping of the changes made to a model: the open batches, the cells
+ * changed since observers were last notified, the move journal and the flight
+ * recorder events. The model applies the rules of the game, and reports every
+ * changed cell and finished cascade step here.
+ *
+ * <p>
+ * Changed cells are published to the model as one `BoardDelta` once the last
+ * open batch is closed, or at the end of each cascade step.
+ * </p>
+ *
+ * @author Erik Selstam
+ */
+final class ChangeTracker
+{
+	/** Number of open batches. */
+	private int batches = 0;
+	
+	/** Whether observers are notified of every cell change. */
+	private boolean cellEvents = false;
+	
+	/** Cells changed since observers were last notified. */
+	private final ChangeSet changes;
+	
+	/** Whether flight recorder events are emitted. */
+	private boolean events = true;
+	
+	/** Journal of the changes made by moves, for undo and redo. */
+	private final MoveJournal journal;
+	
+	/** Model to track. */
+	private final MatchThreeModel model;
+	
+	/** Whether observers are left unnotified, while playing back a game. */
+	private boolean silent = false;
+	
+	/** Number of columns. */
+	private final int width;
+	
+	/**
+	 * Create a tracker without changes.
+	 *
+	 * @author Erik Selstam
+	 * @param model  Model to track.
+	 * @param width  Number of columns.
+	 * @param height Number of rows.
+	 */
+	ChangeTracker(
+		final MatchThreeModel model,
+		final int             width,
+		final int             height)
+	{
+		this.changes = new ChangeSet(width * height);
+		this.journal = new MoveJournal(model, width, height);
+		this.model   = model;
+		this.width   = width;
+	}
+	
+	/**
+	 * Open a batch of changes.
+	 *
+	 * @author Erik Selstam
+	 */
+	void beginBatch() {
+		batches++;
+	}
+	
+	/**
+	 * Forget the changed cells and the recorded moves, without notifying
+	 * observers.
+	 *
+	 * @author Erik Selstam
+	 */
+	void clear() {
+		changes.clear();
+		journal.clear();
+	}
+	
+	/**
+	 * Close a batch of changes, and publish the changed cells if it was the
+	 * last open batch.
+	 *
+	 * @author Erik Selstam
+	 */
+	void endBatch() {
+		// Validate state //
+		if (batches == 0) {
+			throw new IllegalStateException("No batch is open");
+		}
+		
+		if (--batches == 0) {
+			publish();
+		}
+	}
+	
+	/**
+	 * Finish a cascade step: record it, and publish the cells it changed.
+	 *
+	 * @author Erik Selstam
+	 * @param depth   Number of the step within its cascade, from 1.
+	 * @param cleared Number of cleared chain cells.
+	 * @param refills Number of refilled cells.
+	 */
+	void endStep(final int depth, final int cleared, final int refills) {
+		EngineStats.recordStep(depth, cleared, refills);
+		if (events) {
+			new CascadeStepEvent(depth, cleared, refills).commit();
+		}
+		publish();
+	}
+	
+	/**
+	 * Publish the changed cells unless a batch is open.
+	 *
+	 * @author Erik Selstam
+	 */
+	void flush() {
+		if (batches == 0) {
+			publish();
+		}
+	}
+	
+	/**
+	 * Get the journal of the moves made since the game was initialized.
+	 *
+	 * @author Erik Selstam
+	 * @return The move journal.
+	 */
+	MoveJournal getJournal() {
+		return journal;
+	}
+	
+	/**
+	 * Check whether observers are notified of every single cell change.
+	 *
+	 * @author Erik Selstam
+	 * @return Whether to send `CellEvent` and `ColumnEvent`.
+	 */
+	boolean hasCellEvents() {
+		return cellEvents;
+	}
+	
+	/**
+	 * Check whether observers are left unnotified, as while playing back a
+	 * game at full speed.
+	 *
+	 * @author Erik Selstam
+	 * @return Whether to skip notifying observers.
+	 */
+	boolean isSilent() {
+		return silent;
+	}
+	
+	/**
+	 * Notify observers of the cells changed since the last notification. No
+	 * delta is built unless the model needs one.
+	 *
+	 * @author Erik Selstam
+	 */
+	void publish() {
+		// Skip empty or unneeded delta //
+		if (silent || changes.getCount() == 0) {
+			return;
+		}
+		if (!model.needsDelta()) {
+			changes.clear();
+			return;
+		}
+		
+		long time = EngineStats.start();
+		model.notifyDelta(changes.drain(model.board));
+		EngineStats.recordNotify(time);
+	}
+	
+	/**
+	 * Set whether observers are notified of every single cell change.
+	 *
+	 * @author Erik Selstam
+	 * @param enabled Whether to send `CellEvent` and `ColumnEvent`.
+	 */
+	void setCellEvents(final boolean enabled) {
+		cellEvents = enabled;
+	}
+	
+	/**
+	 * Set whether flight recorder events are emitted. Scratch models used by
+	 * searches emit none.
+	 *
+	 * @author Erik Selstam
+	 * @param enabled Whether to emit `MoveEvent` and `CascadeStepEvent`.
+	 */
+	void setEvents(final boolean enabled) {
+		events = enabled;
+	}
+	
+	/**
+	 * Set up playback of a game at full speed. Observers are no longer
+	 * notified, no flight recorder events are emitted, and moves are only
+	 * journaled if asked to.
+	 *
+	 * @author Erik Selstam
+	 * @param history Whether to journal moves for undo and redo.
+	 */
+	void setPlayback(final boolean history) {
+		events = false;
+		silent = true;
+		journal.setEnabled(history);
+	}
+	
+	/**
+	 * Begin the flight recorder event of a move. Models emitting no events
+	 * share one event that is never committed, so moves allocate nothing.
+	 *
+	 * @author Erik Selstam
+	 * @param from Row-major index of the source cell.
+	 * @param to   Row-major index of the destination cell.
+	 * @return The event, to finish with the outcome of the move.
+	 */
+	MoveEvent startMove(final int from, final int to) {
+		return events ? new MoveEvent(from, to, width) : MoveEvent.DISABLED;
+	}
+	
+	/**
+	 * Record a cell about to be changed.
+	 *
+	 * @author Erik Selstam
+	 * @param x     X-coordinate of the cell.
+	 * @param y     Y-coordinate of the cell.
+	 * @param value Current value of the cell.
+	 */
+	void touch(final int x, final int y, final Jewel value) {
+		journal.touch(x, y, value);
+		if (!silent) {
+			changes.add(y * width + x);
+		}
+	}
+}
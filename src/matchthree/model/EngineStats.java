@@ -0,0 +1,255 @@
+package matchthree.model;
+
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide counters and histograms of the game engine, shared by all
+ * models.
+ *
+ * <p>
+ * Recording is enabled by starting the JVM with `-Dmatchthree.stats=true`,
+ * in which case a report is printed to standard error on exit. When disabled,
+ * the statistics are left untouched, and the JIT compiler removes the
+ * checks altogether. All statistics take fixed memory and are updated without
+ * locks, so they may be recorded from parallel simulations.
+ * </p>
+ *
+ * @author Erik Selstam
+ */
+public final class EngineStats
+{
+	/** Whether statistics are recorded. */
+	public static final boolean ENABLED =
+		Boolean.getBoolean("matchthree.stats");
+	
+	/** Number of cascade steps, per move. */
+	private static final Histogram CASCADE_STEPS =
+		new Histogram("cascade steps per move", "steps");
+	
+	/** Number of cleared chain cells, per cascade step. */
+	private static final Histogram CLEARED_CELLS =
+		new Histogram("cleared cells per step", "cells");
+	
+	/** Number of refills drawn from all jewel types. */
+	private static final AtomicLong FALLBACKS = new AtomicLong();
+	
+	/** Duration of legal moves, including their cascades. */
+	private static final Histogram MOVE_TIME =
+		new Histogram("move time", "ns");
+	
+	/** Duration of observer notifications. */
+	private static final Histogram NOTIFY_TIME =
+		new Histogram("notify time", "ns");
+	
+	/** Number of refilled cells, per cascade step. */
+	private static final Histogram REFILLS =
+		new Histogram("refilled cells per step", "cells");
+	
+	/** Rollout throughput, per move search. */
+	private static final Histogram ROLLOUT_RATE =
+		new Histogram("rollout rate", "rollouts/s");
+	
+	// Print report on exit //
+	static {
+		if (ENABLED) {
+			Runtime.getRuntime().addShutdownHook(
+				new Thread(() -> dump(System.err))
+			);
+		}
+	}
+	
+	/**
+	 * Forbidden constructor.
+	 *
+	 * @author Erik Selstam
+	 */
+	private EngineStats() {
+		throw new UnsupportedOperationException();
+	}
+	
+	/**
+	 * Print a report of all statistics, one line each.
+	 *
+	 * @author Erik Selstam
+	 * @param out Stream to print to.
+	 */
+	public static void dump(final PrintStream out) {
+		out.println(MOVE_TIME);
+		out.println(CASCADE_STEPS);
+		out.println(CLEARED_CELLS);
+		out.println(REFILLS);
+		out.println("refill fallbacks: " + FALLBACKS.get());
+		out.println(NOTIFY_TIME);
+		out.println(ROLLOUT_RATE);
+	}
+	
+	/**
+	 * Get the histogram of cascade steps per legal move.
+	 *
+	 * @author Erik Selstam
+	 * @return The histogram.
+	 */
+	public static Histogram getCascadeSteps() {
+		return CASCADE_STEPS;
+	}
+	
+	/**
+	 * Get the histogram of cleared cells per cascade step. Cells in two
+	 * crossing chains are counted twice.
+	 *
+	 * @author Erik Selstam
+	 * @return The histogram.
+	 */
+	public static Histogram getClearedCells() {
+		return CLEARED_CELLS;
+	}
+	
+	/**
+	 * Get the number of refills drawn from all jewel types, because every
+	 * type would have completed a chain.
+	 *
+	 * @author Erik Selstam
+	 * @return The number of fallback draws.
+	 */
+	public static long getFallbackCount() {
+		return FALLBACKS.get();
+	}
+	
+	/**
+	 * Get the histogram of the duration of legal moves, in nanoseconds.
+	 *
+	 * @author Erik Selstam
+	 * @return The histogram.
+	 */
+	public static Histogram getMoveTime() {
+		return MOVE_TIME;
+	}
+	
+	/**
+	 * Get the histogram of the duration of observer notifications, in
+	 * nanoseconds.
+	 *
+	 * @author Erik Selstam
+	 * @return The histogram.
+	 */
+	public static Histogram getNotifyTime() {
+		return NOTIFY_TIME;
+	}
+	
+	/**
+	 * Get the histogram of refilled cells per cascade step.
+	 *
+	 * @author Erik Selstam
+	 * @return The histogram.
+	 */
+	public static Histogram getRefills() {
+		return REFILLS;
+	}
+	
+	/**
+	 * Get the histogram of the rollout throughput of move searches, in
+	 * rollouts per second.
+	 *
+	 * @author Erik Selstam
+	 * @return The histogram.
+	 */
+	public static Histogram getRolloutRate() {
+		return ROLLOUT_RATE;
+	}
+	
+	/**
+	 * Count a refill drawn from all jewel types.
+	 *
+	 * @author Erik Selstam
+	 */
+	static void recordFallback() {
+		if (ENABLED) {
+			FALLBACKS.incrementAndGet();
+		}
+	}
+	
+	/**
+	 * Record a legal move.
+	 *
+	 * @author Erik Selstam
+	 * @param start Start time of the move, as returned by `start`.
+	 * @param steps Number of cascade steps.
+	 */
+	static void recordMove(final long start, final int steps) {
+		if (ENABLED) {
+			MOVE_TIME.record(System.nanoTime() - start);
+			CASCADE_STEPS.record(steps);
+		}
+	}
+	
+	/**
+	 * Record an observer notification.
+	 *
+	 * @author Erik Selstam
+	 * @param start Start time of the notification, as returned by `start`.
+	 */
+	static void recordNotify(final long start) {
+		if (ENABLED) {
+			NOTIFY_TIME.record(System.nanoTime() - start);
+		}
+	}
+	
+	/**
+	 * Record a move search.
+	 *
+	 * @author Erik Selstam
+	 * @param rollouts Number of rollouts played.
+	 * @param time     Duration of the search, in nanoseconds.
+	 */
+	static void recordSearch(final long rollouts, final long time) {
+		if (ENABLED && time > 0) {
+			ROLLOUT_RATE.record(rollouts * 1_000_000_000L / time);
+		}
+	}
+	
+	/**
+	 * Record a cascade step.
+	 *
+	 * @author Erik Selstam
+	 * @param depth   Number of the step within its cascade, from 1.
+	 * @param cleared Number of cleared chain cells.
+	 * @param refills Number of refilled cells.
+	 */
+	static void recordStep(
+		final int depth,
+		final int cleared,
+		final int refills)
+	{
+		if (ENABLED) {
+			CLEARED_CELLS.record(cleared);
+			REFILLS.record(refills);
+		}
+	}
+	
+	/**
+	 * Remove all recorded statistics.
+	 *
+	 * @author Erik Selstam
+	 */
+	public static void reset() {
+		CASCADE_STEPS.reset();
+		CLEARED_CELLS.reset();
+		FALLBACKS.set(0);
+		MOVE_TIME.reset();
+		NOTIFY_TIME.reset();
+		REFILLS.reset();
+		ROLLOUT_RATE.reset();
+	}
+	
+	/**
+	 * Get the start time of a measurement.
+	 *
+	 * @author Erik Selstam
+	 * @return The current time in nanoseconds, or 0 if statistics are not
+	 *         recorded.
+	 */
+	static long start() {
+		return ENABLED ? System.nanoTime() : 0;
+	}
+}
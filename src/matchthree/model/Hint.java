@@ -0,0 +1,98 @@
+package matchthree.model;
+
+/**
+ * Move suggested by a `HintEngine`.
+ *
+ * @author Erik Selstam
+ */
+public final class Hint
+{
+	/** Number of moves looked ahead to rate the move. */
+	private final int depth;
+	
+	/** Expected score gain of the move and the best following moves. */
+	private final double expectedScore;
+	
+	/** Source coordinates. */
+	private final Coordinate from;
+	
+	/** Swap identifier. */
+	private final int swap;
+	
+	/** Destination coordinates. */
+	private final Coordinate to;
+	
+	/**
+	 * Constructor.
+	 *
+	 * @author Erik Selstam
+	 * @param model         Model the move is for.
+	 * @param swap          Swap identifier.
+	 * @param expectedScore Expected score gain.
+	 * @param depth         Number of moves looked ahead.
+	 */
+	Hint(
+		final MatchThreeModel model,
+		final int             swap,
+		final double          expectedScore,
+		final int             depth)
+	{
+		this.depth         = depth;
+		this.expectedScore = expectedScore;
+		this.from          = model.getSwapSource(swap);
+		this.swap          = swap;
+		this.to            = model.getSwapTarget(swap);
+	}
+	
+	/**
+	 * Get the number of moves looked ahead to rate the move, including the
+	 * move itself.
+	 *
+	 * @author Erik Selstam
+	 * @return The search depth.
+	 */
+	public int getDepth() {
+		return depth;
+	}
+	
+	/**
+	 * Get the expected score gain of the move followed by the best moves
+	 * found for the rest of the search depth.
+	 *
+	 * @author Erik Selstam
+	 * @return The expected score gain.
+	 */
+	public double getExpectedScore() {
+		return expectedScore;
+	}
+	
+	/**
+	 * Get the source coordinates of the move.
+	 *
+	 * @author Erik Selstam
+	 * @return The source coordinates.
+	 */
+	public Coordinate getFrom() {
+		return from;
+	}
+	
+	/**
+	 * Get the swap identifier of the move.
+	 *
+	 * @author Erik Selstam
+	 * @return The swap identifier, as returned by `getMoves`.
+	 */
+	public int getSwap() {
+		return swap;
+	}
+	
+	/**
+	 * Get the destination coordinates of the move.
+	 *
+	 * @author Erik Selstam
+	 * @return The destination coordinates.
+	 */
+	public Coordinate getTo() {
+		return to;
+	}
+}
@@ -0,0 +1,315 @@
+package matchthree.model;
+
+import java.util.SplittableRandom;
+
+/**
+ * Time-budgeted search for the best move of a game.
+ *
+ * <p>
+ * Every legal swap is played out on a scratch model, including the whole
+ * cascade, and rated by the expected score gain over a number of sampled
+ * refills. The search is deepened one move at a time until the time budget
+ * runs out, so that a move is always available, and the moves rated best so
+ * far are searched first at the next depth.
+ * </p>
+ *
+ * <p>
+ * One scratch model is kept per search depth and reused for every node, by
+ * copying the state of the parent node into it. Scratch models never have
+ * observers. Positions reached more than once, within a search or across
+ * searches, are looked up in a transposition table instead of being searched
+ * again. The engine is not thread-safe.
+ * </p>
+ *
+ * @author Erik Selstam
+ */
+public final class HintEngine
+{
+	/** Default maximum search depth. */
+	private static final int DEFAULT_DEPTH = 4;
+	
+	/** Default number of sampled refills per move. */
+	private static final int DEFAULT_SAMPLES = 4;
+	
+	/** Number of transposition table slots. */
+	private static final int TABLE_SIZE = 1 << 16;
+	
+	/** Time at which the current search must stop, in nanoseconds. */
+	private long deadline = 0;
+	
+	/** Whether the current search has run out of time. */
+	private boolean expired = false;
+	
+	/** Maximum search depth. */
+	private final int maximumDepth;
+	
+	/** Number of moves played out by the last search. */
+	private long nodes = 0;
+	
+	/** Ratings of the moves of the searched model. */
+	private double[] ratings = null;
+	
+	/** Number of sampled refills per move. */
+	private final int samples;
+	
+	/** Scratch models, per search depth. */
+	private MatchThreeModel[] scratch = null;
+	
+	/**
+	 * Refill seeds, per search depth and sample. The same seeds are used for
+	 * every move at a depth, so that moves are compared on equal refills.
+	 */
+	private final long[] seeds;
+	
+	/** Legal swaps, per search depth. */
+	private int[][] swaps = null;
+	
+	/** Best expected score gains of searched positions. */
+	private final TranspositionTable table =
+		new TranspositionTable(TABLE_SIZE);
+	
+	/**
+	 * Create an engine with the default depth and number of samples.
+	 *
+	 * @author Erik Selstam
+	 */
+	public HintEngine() {
+		this(DEFAULT_SAMPLES, DEFAULT_DEPTH, new SplittableRandom().nextLong());
+	}
+	
+	/**
+	 * Constructor.
+	 *
+	 * @author Erik Selstam
+	 * @param samples      Number of sampled refills per move.
+	 * @param maximumDepth Maximum number of moves to look ahead.
+	 * @param seed         Seed for the sampled refills.
+	 */
+	public HintEngine(
+		final int  samples,
+		final int  maximumDepth,
+		final long seed)
+	{
+		// Validate arguments //
+		if (samples <= 0 || maximumDepth <= 0
+			|| maximumDepth > TranspositionTable.MAXIMUM_DEPTH)
+		{
+			throw new IllegalArgumentException();
+		}
+		
+		// Assign fields //
+		this.maximumDepth = maximumDepth;
+		this.samples      = samples;
+		
+		// Derive refill seeds //
+		seeds = new long[samples * maximumDepth];
+		for (int i = 0; i < seeds.length; i++) {
+			seeds[i] = MatchThreeModel.getChildSeed(seed, i);
+		}
+	}
+	
+	/**
+	 * Find the best move within a time budget.
+	 *
+	 * @author Erik Selstam
+	 * @param model  Model to search. Not changed by the search.
+	 * @param budget Time budget in nanoseconds.
+	 * @return The best move found, or null if there are no legal moves.
+	 */
+	public Hint findHint(final MatchThreeModel model, final long budget) {
+		// Validate arguments //
+		if (model == null) {
+			throw new NullPointerException();
+		}
+		if (budget < 0) {
+			throw new IllegalArgumentException();
+		}
+		
+		// Set up search //
+		deadline = System.nanoTime() + budget;
+		expired  = false;
+		nodes    = 0;
+		prepare(model);
+		int[] moves = swaps[0];
+		int   count = model.getMoves(moves);
+		if (count == 0) {
+			return null;
+		}
+		
+		// Deepen search until out of time //
+		int    best       = moves[0];
+		double bestRating = 0;
+		int    bestDepth  = 0;
+		for (int depth = 1; depth <= maximumDepth && !expired; depth++) {
+			// Rate moves //
+			int rated = 0;
+			while (rated < count) {
+				double rating = rate(model, moves[rated], 0, depth);
+				if (expired) {
+					break;
+				}
+				ratings[rated++] = rating;
+			}
+			
+			// Keep best move, unless none was rated at this depth //
+			if (rated == 0) {
+				break;
+			}
+			sort(moves, rated);
+			best       = moves[0];
+			bestRating = ratings[0];
+			bestDepth  = depth;
+		}
+		
+		return new Hint(model, best, bestRating, bestDepth);
+	}
+	
+	/**
+	 * Get the number of moves played out by the last search.
+	 *
+	 * @author Erik Selstam
+	 * @return The number of nodes searched.
+	 */
+	public long getNodeCount() {
+		return nodes;
+	}
+	
+	/**
+	 * Get the best expected score gain of the legal moves of a scratch model.
+	 *
+	 * @author Erik Selstam
+	 * @param state Scratch model to rate.
+	 * @param ply   Search depth of `state`.
+	 * @param depth Number of moves left to look ahead.
+	 * @return The best expected score gain, or 0 if out of time.
+	 */
+	private double maximize(
+		final MatchThreeModel state,
+		final int             ply,
+		final int             depth)
+	{
+		// Look up position //
+		long hash  = state.getHash();
+		long entry = table.get(hash);
+		if (entry != TranspositionTable.MISSING
+			&& TranspositionTable.getDepth(entry) >= depth)
+		{
+			return TranspositionTable.getScore(entry);
+		}
+		
+		// Rate moves //
+		int[]  moves    = swaps[ply];
+		int    count    = state.getMoves(moves);
+		double best     = 0;
+		int    bestMove = 0;
+		for (int i = 0; i < count; i++) {
+			double rating = rate(state, moves[i], ply, depth);
+			if (expired) {
+				return 0;
+			}
+			if (rating > best) {
+				best     = rating;
+				bestMove = moves[i];
+			}
+		}
+		
+		// Store position //
+		if (bestMove <= TranspositionTable.MAXIMUM_MOVE) {
+			table.put(hash, (float) best, bestMove, depth);
+		}
+		return best;
+	}
+	
+	/**
+	 * Allocate scratch state for a model, unless the current state fits.
+	 *
+	 * @author Erik Selstam
+	 * @param model Model to search.
+	 */
+	private void prepare(final MatchThreeModel model) {
+		// Skip fitting state //
+		int width  = model.getWidth();
+		int height = model.getHeight();
+		if (scratch != null
+			&& scratch[0].getWidth() == width
+			&& scratch[0].getHeight() == height)
+		{
+			return;
+		}
+		
+		// Allocate empty scratch models //
+		table.clear();
+		scratch = new MatchThreeModel[maximumDepth];
+		swaps   = new int[maximumDepth][width * height * 2];
+		ratings = new double[width * height * 2];
+		for (int ply = 0; ply < maximumDepth; ply++) {
+			scratch[ply] = new MatchThreeModel(
+				new Jewel[width * height], width, height, 0
+			);
+		}
+	}
+	
+	/**
+	 * Get the expected score gain of a move, followed by the best moves for
+	 * the rest of the search depth.
+	 *
+	 * @author Erik Selstam
+	 * @param parent Model to make the move on. Not changed.
+	 * @param swap   Swap identifier of the move.
+	 * @param ply    Search depth of the move.
+	 * @param depth  Number of moves to look ahead, including this one.
+	 * @return The expected score gain, or 0 if out of time.
+	 */
+	private double rate(
+		final MatchThreeModel parent,
+		final int             swap,
+		final int             ply,
+		final int             depth)
+	{
+		MatchThreeModel child = scratch[ply];
+		Coordinate      from  = parent.getSwapSource(swap);
+		Coordinate      to    = parent.getSwapTarget(swap);
+		double          total = 0;
+		for (int sample = 0; sample < samples; sample++) {
+			// Check time budget //
+			if (System.nanoTime() >= deadline) {
+				expired = true;
+				return 0;
+			}
+			
+			// Play out move //
+			child.copyFrom(parent, seeds[ply * samples + sample]);
+			child.move(from, to);
+			nodes++;
+			total += child.getScore() - parent.getScore();
+			
+			// Look further ahead //
+			if (depth > 1) {
+				total += maximize(child, ply + 1, depth - 1);
+			}
+		}
+		return total / samples;
+	}
+	
+	/**
+	 * Sort rated moves by descending rating.
+	 *
+	 * @author Erik Selstam
+	 * @param moves Swap identifiers, in the order of `ratings`.
+	 * @param count Number of rated moves.
+	 */
+	private void sort(final int[] moves, final int count) {
+		for (int i = 1; i < count; i++) {
+			int    move   = moves[i];
+			double rating = ratings[i];
+			int    j      = i - 1;
+			while (j >= 0 && ratings[j] < rating) {
+				moves[j + 1]   = moves[j];
+				ratings[j + 1] = ratings[j];
+				j--;
+			}
+			moves[j + 1]   = move;
+			ratings[j + 1] = rating;
+		}
+	}
+}
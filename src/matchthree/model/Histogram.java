@@ -0,0 +1,201 @@
+package matchthree.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of non-negative values, in fixed memory.
+ *
+ * <p>
+ * Values are counted in buckets by their highest set bit, so that bucket `b`
+ * holds the values from `2^(b-1)` to `2^b - 1`, and bucket 0 holds zero.
+ * Percentiles are thus reported as the upper bound of a bucket, within a
+ * factor of two of the exact value. Recording a value takes a few atomic
+ * updates and never allocates, so any number of threads may record at once.
+ * Reads are not synchronized with concurrent writes, and may mix values
+ * recorded before and during the read.
+ * </p>
+ *
+ * @author Erik Selstam
+ */
+public final class Histogram
+{
+	/** Number of buckets, one per bit of a value. */
+	private static final int BUCKETS = Long.SIZE;
+	
+	/** Number of values, per bucket. */
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	
+	/** Largest recorded value. */
+	private final AtomicLong max = new AtomicLong();
+	
+	/** Name of the measured quantity. */
+	private final String name;
+	
+	/** Sum of all recorded values. */
+	private final AtomicLong sum = new AtomicLong();
+	
+	/** Unit of the measured quantity, for reports. */
+	private final String unit;
+	
+	/**
+	 * Constructor.
+	 *
+	 * @author Erik Selstam
+	 * @param name Name of the measured quantity.
+	 * @param unit Unit of the measured quantity, for reports.
+	 */
+	public Histogram(final String name, final String unit) {
+		// Validate arguments //
+		if (name == null || unit == null) {
+			throw new NullPointerException();
+		}
+		
+		this.name = name;
+		this.unit = unit;
+	}
+	
+	/**
+	 * Get the number of recorded values.
+	 *
+	 * @author Erik Selstam
+	 * @return The number of values.
+	 */
+	public long getCount() {
+		long count = 0;
+		for (int b = 0; b < BUCKETS; b++) {
+			count += buckets.get(b);
+		}
+		return count;
+	}
+	
+	/**
+	 * Get the largest recorded value.
+	 *
+	 * @author Erik Selstam
+	 * @return The largest value, or 0 if none were recorded.
+	 */
+	public long getMax() {
+		return max.get();
+	}
+	
+	/**
+	 * Get the mean of the recorded values.
+	 *
+	 * @author Erik Selstam
+	 * @return The mean, or 0 if no values were recorded.
+	 */
+	public double getMean() {
+		long count = getCount();
+		return (count > 0) ? (double) sum.get() / count : 0;
+	}
+	
+	/**
+	 * Get the name of the measured quantity.
+	 *
+	 * @author Erik Selstam
+	 * @return The name.
+	 */
+	public String getName() {
+		return name;
+	}
+	
+	/**
+	 * Get an upper bound of a percentile of the recorded values.
+	 *
+	 * @author Erik Selstam
+	 * @param percentile Percentile, from 0 to 100.
+	 * @return The upper bound of the bucket holding the percentile, or 0 if
+	 *         no values were recorded.
+	 */
+	public long getPercentile(final double percentile) {
+		// Validate argument //
+		if (percentile < 0 || percentile > 100) {
+			throw new IllegalArgumentException(
+				"`percentile` must be between 0 and 100"
+			);
+		}
+		
+		// Find the bucket holding the ranked value //
+		long rank  = (long) Math.ceil(getCount() * percentile / 100);
+		long count = 0;
+		for (int b = 0; b < BUCKETS; b++) {
+			count += buckets.get(b);
+			if (count >= rank && count > 0) {
+				return Math.min((b > 0) ? (1L << b) - 1 : 0, max.get());
+			}
+		}
+		return 0;
+	}
+	
+	/**
+	 * Get the sum of the recorded values.
+	 *
+	 * @author Erik Selstam
+	 * @return The sum.
+	 */
+	public long getSum() {
+		return sum.get();
+	}
+	
+	/**
+	 * Get the unit of the measured quantity.
+	 *
+	 * @author Erik Selstam
+	 * @return The unit.
+	 */
+	public String getUnit() {
+		return unit;
+	}
+	
+	/**
+	 * Record a value.
+	 *
+	 * @author Erik Selstam
+	 * @param value Value to record. Negative values are counted as zero.
+	 */
+	public void record(final long value) {
+		long clamped = Math.max(value, 0);
+		buckets.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(clamped));
+		sum.addAndGet(clamped);
+		
+		// Raise maximum //
+		long current = max.get();
+		while (clamped > current && !max.compareAndSet(current, clamped)) {
+			current = max.get();
+		}
+	}
+	
+	/**
+	 * Remove all recorded values.
+	 *
+	 * @author Erik Selstam
+	 */
+	public void reset() {
+		for (int b = 0; b < BUCKETS; b++) {
+			buckets.set(b, 0);
+		}
+		max.set(0);
+		sum.set(0);
+	}
+	
+	/**
+	 * Get a one-line summary of the recorded values.
+	 *
+	 * @author Erik Selstam
+	 * @return The name, count, mean, median, 99th percentile and maximum.
+	 */
+	@Override
+	public String toString() {
+		return String.format(
+			"%s: count %d, mean %.1f, p50 %d, p99 %d, max %d %s",
+			name,
+			getCount(),
+			getMean(),
+			getPercentile(50),
+			getPercentile(99),
+			getMax(),
+			unit
+		);
+	}
+}
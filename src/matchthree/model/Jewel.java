@@ -3,7 +3,7 @@ package matchthree.model;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * Jewel type.
@@ -35,18 +35,16 @@ public enum Jewel
 	/** Jewel type count. */
 	private static final int SIZE = VALUES.size();
 	
-	/** PRNG state. */
-	private static final Random RANDOM = new Random();
-	
 	/**
 	 * Return a random jewel.
 	 *
 	 * @author Erik Selstam
+	 * @param generator PRNG context to draw from.
 	 * @return A random jewel type.
 	 */
 	// TODO: Support returning a limited subset of jewels?
-	public static Jewel random() {
-		return VALUES.get(RANDOM.nextInt(SIZE));
+	public static Jewel random(final SplittableRandom generator) {
+		return VALUES.get(generator.nextInt(SIZE));
 	}
 	
 	/**
@@ -1,12 +1,11 @@
 package matchthree.model;
 
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Observable;
-import java.util.Random;
-import java.util.Set;
+import java.util.SplittableRandom;
+import matchthree.message.BoardDelta;
 import matchthree.message.CellEvent;
+import matchthree.message.ColumnEvent;
 import matchthree.message.GameFinishedEvent;
 import matchthree.message.MovesLeftEvent;
 import matchthree.message.ScoreEvent;
@@ -24,20 +23,53 @@ public class MatchThreeModel
 	/** Minimum chain length. */
 	private static final int MINIMUM_LENGTH = 3;
 	
+	/** Number of moves of a game. */
+	private static final int MOVES = 20;
+	
 	/** Grid. */
-	protected Jewel[] board = null;
+	protected BitBoard board = null;
 	
 	/** Score counter. */
 	protected int score = 0;
 	
 	/** Moves left. */
-	protected int movesLeft = 20;
+	protected int movesLeft = MOVES;
+	
+	/** Height of grid. */
+	protected int height = 0;
 	
 	/** Width of grid. */
 	protected int width = 0;
 	
-	/** PRNG context. */
-	private Random random = new Random();
+	/** Number of cascade steps of the last update. */
+	private int cascadeDepth = 0;
+	
+	/** Chains found by the last search. */
+	private final ChainList chains = new ChainList();
+	
+	/** Column being dropped, from the top and down. */
+	private Jewel[] column = null;
+	
+	/**
+	 * Number of rows changed from the top by the current cascade step, per
+	 * column.
+	 */
+	private int[] dirty = null;
+	
+	/** Index of the legal swaps of adjacent cells. */
+	private MoveIndex moves = null;
+	
+	/** Cells changed by the last move, as row-major indices. */
+	private int[] positions = null;
+	
+	/** PRNG context, used for the refills of the current move. */
+	private RefillStream random = null;
+	
+	/** Number of times the board has been reshuffled for lack of moves. */
+	private int shuffles = 0;
+	
+	/** Batches, published changes, journal and events of the model. */
+	private ChangeTracker tracker = null;
 	
 	/**
 	 * Move type.
@@ -61,11 +93,17 @@ public class MatchThreeModel
 	 *
 	 * @author Erik Selstam
 	 * @author Linus Aronsson
-	 * @param board Board to use.
-	 * @param width Size of the board on one axis in number of cells.
+	 * @param board  Board to use.
+	 * @param width  Number of columns.
+	 * @param height Number of rows.
+	 * @param seed   Seed for the board and all refills.
 	 */
-	// TODO: Remove `width` parameter.
-	public MatchThreeModel(final Jewel[] board, final int width) {
+	public MatchThreeModel(
+		final Jewel[] board,
+		final int     width,
+		final int     height,
+		final long    seed)
+	{
 		// Validate argument //
 		// NOTE: `board` may be null.
 		if (width <= 0) {
@@ -73,247 +111,290 @@ public class MatchThreeModel
 				"`width` must be greater than 0"
 			);
 		}
-		
-		// Construct board //
-		this.board = (board != null) ? board : new Jewel[width * width];
+		if (height <= 0) {
+			throw new IllegalArgumentException(
+				"`height` must be greater than 0"
+			);
+		}
+		if (board != null && board.length != width * height) {
+			throw new IllegalArgumentException(
+				"`board` must hold `width * height` cells"
+			);
+		}
 		
 		// Assign fields //
-		this.width = width;
+		this.board     = new BitBoard(width, height);
+		this.column    = new Jewel[height];
+		this.dirty     = new int[width];
+		this.moves     = new MoveIndex(this.board, MINIMUM_LENGTH);
+		this.positions = new int[Math.max(width, height)];
+		this.random    = new RefillStream(seed);
+		this.tracker   = new ChangeTracker(this, width, height);
+		this.height    = height;
+		this.width     = width;
 		
 		// Set initial state //
 		if (board == null) {
-			init();
+			init(seed);
+		} else {
+			for (int i = 0; i < board.length; i++) {
+				this.board.put(i % width, i / width, board[i]);
+			}
+			moves.rebuild();
 		}
 	}
 	
 	/**
-	 * Create `MatchThreeModel`.
+	 * Create `MatchThreeModel` with a random seed.
+	 *
+	 * @author Erik Selstam
+	 * @param board  Board to use.
+	 * @param width  Number of columns.
+	 * @param height Number of rows.
+	 */
+	public MatchThreeModel(
+		final Jewel[] board,
+		final int     width,
+		final int     height)
+	{
+		this(board, width, height, new SplittableRandom().nextLong());
+	}
+	
+	/**
+	 * Create `MatchThreeModel` with a square board.
+	 *
+	 * @author Erik Selstam
+	 * @param board Board to use.
+	 * @param width Size of the board on one axis in number of cells.
+	 */
+	public MatchThreeModel(final Jewel[] board, final int width) {
+		this(board, width, width);
+	}
+	
+	/**
+	 * Create `MatchThreeModel` with a square board.
 	 *
 	 * @author Erik Selstam
 	 * @param width Size of the board on one axis in number of cells.
 	 */
 	public MatchThreeModel(final int width) {
-		this(null, width);
+		this(null, width, width);
 	}
 	
 	/**
-	 * Clear jewels from the board. May leave the board in an inconsistent
-	 * state.
+	 * Create `MatchThreeModel`.
 	 *
 	 * @author Erik Selstam
-	 * @param chains Array of chains with aligned cells to clear.
-	 * @return Gained score.
+	 * @param width  Number of columns.
+	 * @param height Number of rows.
+	 */
+	public MatchThreeModel(final int width, final int height) {
+		this(null, width, height);
+	}
+	
+	/**
+	 * Create `MatchThreeModel` from a seed. Models created with the same
+	 * seed and dimensions start with the same board, and refill it the same
+	 * way given the same moves.
+	 *
+	 * @author Erik Selstam
+	 * @param width  Number of columns.
+	 * @param height Number of rows.
+	 * @param seed   Seed for the board and all refills.
+	 */
+	public MatchThreeModel(final int width, final int height, final long seed) {
+		this(null, width, height, seed);
+	}
+	
+	/**
+	 * Apply a set of cell changes as one batch.
+	 *
+	 * @author Erik Selstam
+	 * @param delta Changes to apply.
 	 */
-	private int clearChains(final Coordinate[][] chains) {
+	public void apply(final BoardDelta delta) {
 		// Validate argument //
-		// TODO: Perform validation on array contents as well?
-		if (chains == null) {
+		if (delta == null) {
 			throw new NullPointerException();
 		}
+		if (delta.getWidth() != width) {
+			throw new IllegalArgumentException(
+				"`delta` must be made for a board of the same width"
+			);
+		}
 		
+		// Set values //
+		beginBatch();
+		for (int i = 0; i < delta.getCount(); i++) {
+			set(delta.getX(i), delta.getY(i), delta.getValue(i));
+		}
+		endBatch();
+	}
+	
+	/**
+	 * Open a batch of changes. Until every open batch has been ended,
+	 * observers are not notified of changed cells, except at the end of each
+	 * cascade step.
+	 *
+	 * @author Erik Selstam
+	 */
+	public void beginBatch() {
+		tracker.beginBatch();
+	}
+	
+	/**
+	 * Clear the jewels of the last found chains from the board. May leave the
+	 * board in an inconsistent state.
+	 *
+	 * @author Erik Selstam
+	 * @return Gained score.
+	 */
+	private int clearChains() {
 		// Clear chains //
 		int points = 0;
-		for (final Coordinate[] chain : chains) {
+		for (int chain = 0; chain < chains.getCount(); chain++) {
 			// Clear cells //
-			for (final Coordinate cell : chain) {
-				set(cell, null);
+			int start = chains.getStart(chain);
+			int end   = chains.getEnd(chain);
+			for (int offset = start; offset < end; offset++) {
+				int i = chains.getCell(offset);
+				int x = i % width;
+				int y = i / width;
+				set(x, y, null);
+				
+				// Mark column as changed down to the cleared cell //
+				dirty[x] = Math.max(dirty[x], y + 1);
 			}
 			
 			// Count score //
 			// TODO: Make score increase exponentially with longer matches.
 			// TODO: Make number a constant.
-			points += chain.length * 100;
+			points += (end - start) * 100;
 		}
 		
 		return points;
 	}
 	
 	/**
-	 * Move cells downwards to fill any gaps. May leave the board in an
-	 * inconsistent state.
+	 * Count a move, and notify observers. Unlike `setMovesLeft`, never
+	 * finishes the game or submits the score, as when replaying a game.
 	 *
 	 * @author Erik Selstam
 	 */
-	private void dropCells() {
-		// Iterate over columns //
-		for (int column = 0; column < width; column++) {
-			// Iterate bottom-up //
-			for (int row = width - 1; row >= 0; --row) {
-				// Move cell down to last empty space //
-				for (int index = row; index < width - 1; index++) {
-					Coordinate over  = new Coordinate(column, index);
-					Coordinate under = new Coordinate(column, index + 1);
-					if (get(under) != null) {
-						break;
-					}
-					swap(over, under);
-				}
-			}
-		}
+	public void countMove() {
+		movesLeft--;
+		setChanged();
+		notifyObservers(new MovesLeftEvent(movesLeft));
 	}
 	
 	/**
-	 * Fill empty spaces in the board. Avoids creating matches. Since the
-	 * algorithm is not proven to work in all instances, it may potentially
-	 * leave the board in an inconsistent state.
+	 * Copy the board, score and move counters of another model, and restart
+	 * refills from a seed. Observers are not notified. Used to set up scratch
+	 * models for searches, which are then reused instead of reallocated, and
+	 * emit no flight recorder events.
 	 *
 	 * @author Erik Selstam
+	 * @param source Model to copy. Must have the same dimensions.
+	 * @param seed   Seed for all following refills.
 	 */
-	private void fill() {
-		// Fill all cells //
-		for (int i = 0; i < width * width; i++) {
-			// Skip filled cells //
-			if (board[i] != null) {
-				continue;
-			}
-			
-			// Create list of possible options //
-			Set<Jewel> options = new HashSet<Jewel>();
-			options.add(Jewel.DIAMOND);
-			options.add(Jewel.EMERALD);
-			options.add(Jewel.RUBY);
-			options.add(Jewel.SAPPHIRE);
-			options.add(Jewel.TOPAZ);
-			
-			// Get coordinates //
-			int x = i % width;
-			int y = i / width;
-			Coordinate position = new Coordinate(x, y);
-			
-			// Attempt to fill cell //
-			while (true) {
-				// Bail-out if options are exhausted //
-				if (options.isEmpty()) {
-					System.err.printf(
-						"No possible jewel for (%d, %d), leaving empty%s",
-						x, y, System.lineSeparator()
-					);
-					set(position, null);
-					break;
-				}
-				
-				// Get a random option //
-				int   choice  = random.nextInt(options.size());
-				int   current = 0;
-				Jewel jewel   = null;
-				for (final Jewel kind : options) {
-					if (current == choice) {
-						jewel = kind;
-					}
-					current++;
-				}
-				
-				// Update cell //
-				set(position, jewel);
-				
-				// Look for chains //
-				Coordinate[][] chains = findChains(position);
-				if (chains.length == 0) {
-					break;
-				}
-				
-				// Option exhausted //
-				options.remove(jewel);
-			}
+	void copyFrom(final MatchThreeModel source, final long seed) {
+		// Validate argument //
+		if (source.width != width || source.height != height) {
+			throw new IllegalArgumentException(
+				"`source` must have the same dimensions"
+			);
 		}
+		
+		// Copy state //
+		board.copyFrom(source.board);
+		moves.copyFrom(source.moves);
+		tracker.clear();
+		tracker.setEvents(false);
+		score        = source.score;
+		movesLeft    = source.movesLeft;
+		shuffles     = source.shuffles;
+		cascadeDepth = 0;
+		
+		// Restart refills //
+		random.restart(seed);
 	}
 	
 	/**
-	 * Identify chains involving a single cell.
+	 * Replace the whole board with new jewels and clear any resulting chains.
 	 *
 	 * @author Erik Selstam
-	 * @param position Coordinate of cell to check.
-	 * @return Array of chains found.
 	 */
-	private Coordinate[][] findChains(final Coordinate position) {
-		// Validate argument //
-		if (position == null) {
-			throw new NullPointerException();
-		}
-		
-		Coordinate[] positions = new Coordinate[] {position};
-		return findChains(positions);
+	private void deal() {
+		tracker.getJournal().touchAll(board);
+		board.clear();
+		Arrays.fill(dirty, height);
+		fill();
+		board.findChains(MINIMUM_LENGTH, dirty, chains);
+		update();
 	}
 	
 	/**
-	 * Identify chains involving a list of cells.
+	 * Close a batch of changes. Observers are notified of the changed cells
+	 * once the last open batch is closed.
 	 *
 	 * @author Erik Selstam
-	 * @param positions Coordinates of cells to check.
-	 * @return Array of chains found.
 	 */
-	private Coordinate[][] findChains(final Coordinate[] positions) {
-		// Validate argument //
-		// TODO: Check for null values inside array?
-		if (positions == null) {
-			throw new NullPointerException();
-		}
-		
-		// Look for chains //
-		List<Coordinate[]> chains = new ArrayList<Coordinate[]>();
-		for (final Coordinate position : positions) {
-			// Get jewel type to match //
-			Jewel matchType = get(position);
-			
-			// Unpack coordinates //
-			int x = position.getX();
-			int y = position.getY();
-			
-			// Search for matches on X-axis //
-			int startX = position.getX();
-			int stopX  = position.getX();
-			List<Coordinate> cellsX = new ArrayList<Coordinate>();
-			for (int i = x; i >= 0; i--) {
-				Jewel cell = get(i, y);
-				if (cell == null || !cell.equals(matchType)) {
-					break;
-				}
-				startX = i;
-				cellsX.add(new Coordinate(i, y));
-			}
-			for (int i = x + 1; i < width; i++) {
-				Jewel cell = get(i, y);
-				if (cell == null || !cell.equals(matchType)) {
-					break;
-				}
-				stopX = i;
-				cellsX.add(new Coordinate(i, y));
-			}
-			if (cellsX.size() >= MINIMUM_LENGTH) {
-				Coordinate[] chain = new Coordinate[cellsX.size()];
-				chain = cellsX.toArray(chain);
-				chains.add(chain);
+	public void endBatch() {
+		tracker.endBatch();
+	}
+	
+	/**
+	 * Move cells downwards to fill any gaps. Each changed column is compacted
+	 * in a single sweep and updated as a whole. May leave the board in an
+	 * inconsistent state.
+	 *
+	 * @author Erik Selstam
+	 */
+	private void dropCells() {
+		// Iterate over changed columns //
+		for (int x = 0; x < width; x++) {
+			// Skip unchanged columns //
+			int depth = dirty[x];
+			if (depth == 0) {
+				continue;
 			}
 			
-			// Search for matches on Y-axis //
-			int startY = position.getY();
-			int stopY  = position.getY();
-			List<Coordinate> cellsY = new ArrayList<Coordinate>();
-			for (int i = y; i >= 0; i--) {
-				Jewel cell = get(x, i);
-				if (cell == null || !cell.equals(matchType)) {
-					break;
-				}
-				startY = i;
-				cellsY.add(new Coordinate(x, i));
-			}
-			for (int i = y + 1; i < width; i++) {
-				Jewel cell = get(x, i);
-				if (cell == null || !cell.equals(matchType)) {
-					break;
+			// Update column //
+			board.getDropped(x, depth, column);
+			putColumn(x, column, depth);
+		}
+	}
+	
+	/**
+	 * Fill empty spaces in the board. Avoids creating matches by drawing each
+	 * jewel from the types that do not complete a chain with the neighboring
+	 * cells. Only the cells changed by the current cascade step are visited.
+	 *
+	 * <p>
+	 * Should every type complete a chain, which cannot happen with five
+	 * jewel types, a type is drawn from all jewels and the resulting chain is
+	 * left to be cleared by the cascade.
+	 * </p>
+	 *
+	 * @author Erik Selstam
+	 * @return Number of refilled cells.
+	 */
+	private int fill() {
+		// Fill changed cells, column by column //
+		int count = 0;
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < dirty[x]; y++) {
+				// Skip filled cells //
+				if (board.get(x, y) != null) {
+					continue;
 				}
-				stopY = i;
-				cellsY.add(new Coordinate(x, i));
-			}
-			if (cellsY.size() >= MINIMUM_LENGTH) {
-				Coordinate[] chain = new Coordinate[cellsY.size()];
-				chain = cellsY.toArray(chain);
-				chains.add(chain);
+				
+				// Update cell //
+				set(x, y, board.draw(x, y, random));
+				count++;
 			}
 		}
-		
-		Coordinate[][] out = new Coordinate[chains.size()][];
-		return chains.toArray(out);
+		return count;
 	}
 	
 	/**
@@ -324,12 +405,7 @@ public class MatchThreeModel
 	 * @return The cell value.
 	 */
 	public Jewel get(final Coordinate position) {
-		// Validate argument //
-		if (position == null) {
-			throw new NullPointerException();
-		}
-		
-		return get(position.getX(), position.getY());
+		return board.get(indexOf(position));
 	}
 	
 	/**
@@ -345,12 +421,11 @@ public class MatchThreeModel
 		if (x < 0 || y < 0) {
 			throw new IllegalArgumentException();
 		}
-		if (x >= width || y >= width) {
+		if (x >= width || y >= height) {
 			throw new IndexOutOfBoundsException();
 		}
 		
-		int i = y * width + x;
-		return board[i];
+		return board.get(x, y);
 	}
 	
 	/**
@@ -360,7 +435,113 @@ public class MatchThreeModel
 	 * @return A copy of the board.
 	 */
 	public Jewel[] getBoard() {
-		return board.clone();
+		return board.toArray();
+	}
+	
+	/**
+	 * Get the number of cascade steps of the last move, that is how many
+	 * times chains were cleared before the board settled.
+	 *
+	 * @author Erik Selstam
+	 * @return The number of cascade steps.
+	 */
+	public int getCascadeDepth() {
+		return cascadeDepth;
+	}
+	
+	/**
+	 * Derive the seed of a child stream from a seed, for example for one game
+	 * of a parallel simulation. The result only depends on the arguments, so
+	 * children can be created in any order or on any thread.
+	 *
+	 * @author Erik Selstam
+	 * @param seed  Parent seed.
+	 * @param child Number of the child stream.
+	 * @return Seed of the child stream.
+	 */
+	public static long getChildSeed(final long seed, final int child) {
+		return RefillStream.getChildSeed(seed, child);
+	}
+	
+	/**
+	 * Get the hash of the board contents. Boards of the same width with the
+	 * same contents have the same hash, also across processes, so hashes can
+	 * be compared instead of whole boards. The hash is updated on every
+	 * change of a cell.
+	 *
+	 * @author Erik Selstam
+	 * @return The 64-bit Zobrist hash of the board.
+	 */
+	public long getHash() {
+		return board.getHash();
+	}
+	
+	/**
+	 * Get the height of the board.
+	 *
+	 * @author Erik Selstam
+	 * @return The number of rows.
+	 */
+	public int getHeight() {
+		return height;
+	}
+	
+	/**
+	 * Get the journal of the moves made since the game was initialized, for
+	 * undo and redo.
+	 *
+	 * @author Erik Selstam
+	 * @return The move journal.
+	 */
+	public MoveJournal getJournal() {
+		return tracker.getJournal();
+	}
+	
+	/**
+	 * Get a legal swap of adjacent cells.
+	 *
+	 * @author Erik Selstam
+	 * @param n Number of the swap, in the order given by `getMoves`.
+	 * @return Swap identifier.
+	 */
+	public int getMove(final int n) {
+		// Validate argument //
+		if (n < 0) {
+			throw new IllegalArgumentException();
+		}
+		if (n >= moves.getCount()) {
+			throw new IndexOutOfBoundsException();
+		}
+		
+		return moves.get(n);
+	}
+	
+	/**
+	 * Get the number of legal swaps of adjacent cells.
+	 *
+	 * @author Erik Selstam
+	 * @return The number of legal swaps.
+	 */
+	public int getMoveCount() {
+		return moves.getCount();
+	}
+	
+	/**
+	 * Get the legal swaps of adjacent cells. Each swap is identified by the
+	 * row-major index of its top or left cell times two, plus one if the
+	 * other cell is below it rather than to the right.
+	 *
+	 * @author Erik Selstam
+	 * @param swaps Array to fill with swap identifiers.
+	 * @return Number of swaps stored, at most the length of `swaps`.
+	 */
+	public int getMoves(final int[] swaps) {
+		// Validate argument //
+		if (swaps == null) {
+			throw new NullPointerException();
+		}
+		
+		return moves.getAll(swaps);
 	}
 	
 	/**
@@ -384,35 +565,133 @@ public class MatchThreeModel
 	}
 	
 	/**
-	 * Get the size the board.
+	 * Get the seed of the current game.
+	 *
+	 * @author Erik Selstam
+	 * @return The seed.
+	 */
+	public long getSeed() {
+		return random.getSeed();
+	}
+	
+	/**
+	 * Get the number of times the board has been reshuffled because no legal
+	 * moves were left, since the game was initialized. Includes reshuffles of
+	 * the first board.
+	 *
+	 * @author Erik Selstam
+	 * @return The number of reshuffles.
+	 */
+	public int getShuffleCount() {
+		return shuffles;
+	}
+	
+	/**
+	 * Get the source cell of a swap.
 	 *
 	 * @author Erik Selstam
-	 * @return The number of cells per axis.
+	 * @param swap Swap identifier, as returned by `getMoves`.
+	 * @return Coordinates of the top or left cell of the swap.
+	 */
+	public Coordinate getSwapSource(final int swap) {
+		int i = swap >>> 1;
+		return new Coordinate(i % width, i / width);
+	}
+	
+	/**
+	 * Get the destination cell of a swap.
+	 *
+	 * @author Erik Selstam
+	 * @param swap Swap identifier, as returned by `getMoves`.
+	 * @return Coordinates of the bottom or right cell of the swap.
+	 */
+	public Coordinate getSwapTarget(final int swap) {
+		int i = swap >>> 1;
+		return ((swap & 1) == 0)
+			? new Coordinate(i % width + 1, i / width)
+			: new Coordinate(i % width, i / width + 1);
+	}
+	
+	/**
+	 * Get the width of the board.
+	 *
+	 * @author Erik Selstam
+	 * @return The number of columns.
 	 */
 	public int getWidth() {
 		return width;
 	}
 	
 	/**
-	 * Initialize a new game.
+	 * Get the row-major index of a cell.
+	 *
+	 * @author Erik Selstam
+	 * @param position Coordinates of the cell.
+	 * @return The cell index.
+	 */
+	private int indexOf(final Coordinate position) {
+		// Validate argument //
+		if (position == null) {
+			throw new NullPointerException();
+		}
+		if (position.getX() >= width || position.getY() >= height) {
+			throw new IndexOutOfBoundsException();
+		}
+		
+		return position.getY() * width + position.getX();
+	}
+	
+	/**
+	 * Initialize a new game from a seed drawn from the current game, so that
+	 * every game can be replayed from its seed.
 	 *
 	 * @author Erik Selstam
 	 */
 	public void init() {
+		init(random.nextLong());
+	}
+	
+	/**
+	 * Initialize a new game from a seed, with a new score and every move left.
+	 *
+	 * @author Erik Selstam
+	 * @param seed Seed for the board and all refills.
+	 */
+	public void init(final long seed) {
+		// Restart refills //
+		random.restart(seed);
+		
 		// Reset board //
-		// TODO: Is it necessary to null-initialize array?
-		for (int i = 0; i < width * width; i++) {
-			board[i] = null;
+		shuffles = 0;
+		beginBatch();
+		deal();
+		if (moves.isEmpty()) {
+			shuffle();
 		}
-		fill();
+		endBatch();
 		
-		// Reset score //
-		score = 0;
+		// Reset counters //
+		restoreCounters(0, MOVES);
+		tracker.clear();
+	}
+	
+	/**
+	 * Check whether a move would create a chain, without changing the board.
+	 * Moving a cell shifts the cells between the source and the destination
+	 * one step back towards the source.
+	 *
+	 * @author Erik Selstam
+	 * @param from Source coordinates.
+	 * @param to   Destination coordinates.
+	 * @return Whether the move is legal.
+	 */
+	public boolean isLegalMove(final Coordinate from, final Coordinate to) {
+		return moves.isLegalMove(indexOf(from), indexOf(to));
 	}
 	
 	/**
 	 * Move a cell and clear any generated chains. Leaves the board in a
-	 * consistent state.
+	 * consistent state. The board is only changed if the move is legal.
 	 *
 	 * @author Erik Selstam
 	 * @param from Source coordinates.
@@ -420,80 +699,140 @@ public class MatchThreeModel
 	 * @return Whether the move was successful, invalid or canceled.
 	 */
 	public MoveType move(final Coordinate from, final Coordinate to) {
-		// Validate arguments //
-		if (from == null || to == null) {
-			throw new NullPointerException();
-		}
+		return move(indexOf(from), indexOf(to));
+	}
+	
+	/**
+	 * Move a cell given by its index, like `move` with coordinates, without
+	 * allocating anything.
+	 *
+	 * @author Erik Selstam
+	 * @param from Row-major index of the source cell.
+	 * @param to   Row-major index of the destination cell.
+	 * @return Whether the move was successful, invalid or canceled.
+	 */
+	MoveType move(final int from, final int to) {
+		assert from >= 0 && to >= 0 && Math.max(from, to) < width * height;
 		
 		// Validate move //
-		if (from.getX() == to.getX() && from.getY() == to.getY()) {
-			return MoveType.CANCEL;
+		MoveEvent event = tracker.startMove(from, to);
+		long      time  = EngineStats.start();
+		if (from == to) {
+			return event.finish(MoveType.CANCEL);
 		}
-		if (from.getX() != to.getX() && from.getY() != to.getY()) {
-			return MoveType.BAD;
+		if (!moves.isLegalMove(from, to)) {
+			return event.finish(MoveType.BAD);
 		}
 		
-		// Move cell //
-		Jewel source = get(from);
-		int dx = to.getX() - from.getX();
-		int dy = to.getY() - from.getY();
-		if (dx < 0) { dx = -1; }
-		if (dx > 0) { dx = +1; }
-		if (dy < 0) { dy = -1; }
-		if (dy > 0) { dy = +1; }
-		List<Coordinate> positions = new ArrayList<Coordinate>();
-		// TODO: Implement `equals'.
-		// TODO: Implement `clone`.
-		// TODO: Make a cleaner loop.
-		for (Coordinate position = new Coordinate(from.getX(), from.getY());
-			position.getX() != to.getX() || position.getY() != to.getY();
-			position.setX(position.getX() + dx),
-			position.setY(position.getY() + dy))
-		{
-			// Swap cell with neighbor //
-			Coordinate next = new Coordinate(
-				position.getX() + dx,
-				position.getY() + dy
-			);
-			swap(position, next);
-			
-			// Save coordinate //
-			positions.add(new Coordinate(position.getX(), position.getY()));
-		}
-		positions.add(to);
+		// Unpack coordinates along the line of the move //
+		boolean horizontal = from / width == to / width;
+		int     line       = horizontal ? from / width : from % width;
+		int     start      = horizontal ? from % width : from / width;
+		int     end        = horizontal ? to % width   : to / width;
+		int     step       = (end > start) ? 1 : -1;
 		
-		// Revert move if no chains were made //
-		// TODO: Performs an extra check.
-		// TODO: Avoid changing and revering board state.
-		// TODO: Severe code duplication.
-		Coordinate[] positionsArray = new Coordinate[] {};
-		Coordinate[][] chains = findChains(positions.toArray(positionsArray));
-		if (chains.length <= 0) {
-			int dx2 = -dx;
-			int dy2 = -dy;
-			
-			for (Coordinate position = new Coordinate(to.getX(), to.getY());
-				position.getX() != from.getX()
-					|| position.getY() != from.getY();
-				position.setX(position.getX() + dx2),
-				position.setY(position.getY() + dy2))
-			{
-				// Swap cell with neighbor //
-				Coordinate next = new Coordinate(
-					position.getX() + dx2,
-					position.getY() + dy2
-				);
-				swap(position, next);
+		// Draw refills from the stream of the move //
+		random.select(getJournal().getPosition());
+		
+		// Shift cells towards the source, and place source at destination //
+		beginBatch();
+		getJournal().begin(from, to, score);
+		int   count  = 0;
+		Jewel source = board.get(from);
+		for (int i = start; i != end + step; i += step) {
+			int   x     = horizontal ? i : line;
+			int   y     = horizontal ? line : i;
+			Jewel jewel = source;
+			if (i != end) {
+				jewel = horizontal ? board.get(i + step, line)
+					: board.get(line, i + step);
 			}
+			set(x, y, jewel);
 			
-			return MoveType.BAD;
+			// Save coordinate //
+			positions[count++] = y * width + x;
 		}
+		tracker.publish();
 		
 		// Clear cells //
-		Coordinate[] out = new Coordinate[positions.size()];
-		update(positions.toArray(out));
+		board.findChains(MINIMUM_LENGTH, positions, count, chains);
+		cascadeDepth = update();
+		
+		// Reshuffle if no legal moves are left //
+		if (moves.isEmpty()) {
+			shuffle();
+		}
+		getJournal().end(score);
+		endBatch();
+		EngineStats.recordMove(time, cascadeDepth);
 		
-		return MoveType.OK;
+		return event.finish(MoveType.OK);
+	}
+	
+	/**
+	 * Check whether the changed cells must be published as a delta. By
+	 * default deltas are only built while the model has observers, which
+	 * keeps headless games on large boards from copying every changed cell.
+	 *
+	 * @author Erik Selstam
+	 * @return Whether to call `notifyDelta` for changed cells.
+	 */
+	protected boolean needsDelta() {
+		return countObservers() > 0;
+	}
+	
+	/**
+	 * Notify observers of the cells changed by one step of a move or cascade.
+	 * Only called while `needsDelta` holds.
+	 *
+	 * @author Erik Selstam
+	 * @param delta Changed cells.
+	 */
+	protected void notifyDelta(final BoardDelta delta) {
+		setChanged();
+		notifyObservers(delta);
+	}
+	
+	/**
+	 * Set the values of the top part of a column, without validating them.
+	 *
+	 * @author Erik Selstam
+	 * @param x      X-coordinate of the column.
+	 * @param values Values to set, from the top of the column and down.
+	 * @param count  Number of values to set.
+	 */
+	private void putColumn(final int x, final Jewel[] values, final int count) {
+		// Set values //
+		for (int y = 0; y < count; y++) {
+			tracker.touch(x, y, board.get(x, y));
+			board.put(x, y, values[y]);
+		}
+		if (count > 0) {
+			moves.invalidate(x, 0, count - 1);
+		}
+		
+		// Notify observers //
+		if (tracker.hasCellEvents()) {
+			setChanged();
+			notifyObservers(new ColumnEvent(x, Arrays.copyOf(values, count)));
+		}
+		tracker.flush();
+	}
+	
+	/**
+	 * Set the score and the number of moves left, and notify observers.
+	 *
+	 * @author Erik Selstam
+	 * @param score     New score.
+	 * @param movesLeft New number of moves left.
+	 */
+	void restoreCounters(final int score, final int movesLeft) {
+		this.score     = score;
+		this.movesLeft = movesLeft;
+		setChanged();
+		notifyObservers(new ScoreEvent(score));
+		setChanged();
+		notifyObservers(new MovesLeftEvent(movesLeft));
 	}
 	
 	/**
@@ -504,12 +843,8 @@ public class MatchThreeModel
 	 * @param value    Value to set.
 	 */
 	public void set(final Coordinate position, final Jewel value) {
-		// Validate arguments //
-		if (position == null) {
-			throw new NullPointerException();
-		}
-		
-		set(position.getX(), position.getY(), value);
+		int index = indexOf(position);
+		set(index % width, index / width, value);
 	}
 	
 	/**
@@ -526,17 +861,55 @@ public class MatchThreeModel
 		if (x < 0 || y < 0) {
 			throw new IllegalArgumentException();
 		}
-		if (x >= width || y >= width) {
+		if (x >= width || y >= height) {
 			throw new IndexOutOfBoundsException();
 		}
 		
 		// Set value //
-		int i = y * width + x;
-		board[i] = value;
+		tracker.touch(x, y, board.get(x, y));
+		board.put(x, y, value);
+		moves.invalidate(x, y);
 		
 		// Notify observers //
-		setChanged();
-		notifyObservers(new CellEvent(new Coordinate(x, y), value));
+		if (tracker.hasCellEvents()) {
+			setChanged();
+			notifyObservers(new CellEvent(new Coordinate(x, y), value));
+		}
+		tracker.flush();
+	}
+	
+	/**
+	 * Set whether observers are notified of every single cell change, in
+	 * addition to the changes of each step. Off by default.
+	 *
+	 * @author Erik Selstam
+	 * @param enabled Whether to send `CellEvent` and `ColumnEvent`.
+	 */
+	public void setCellEvents(final boolean enabled) {
+		tracker.setCellEvents(enabled);
+	}
+	
+	/**
+	 * Set the values of the top part of a column. May leave the board in an
+	 * inconsistent state.
+	 *
+	 * @author Erik Selstam
+	 * @param x      X-coordinate of the column.
+	 * @param values Values to set, from the top of the column and down.
+	 */
+	public void setColumn(final int x, final Jewel[] values) {
+		// Validate arguments //
+		if (values == null) {
+			throw new NullPointerException();
+		}
+		if (x < 0) {
+			throw new IllegalArgumentException();
+		}
+		if (x >= width || values.length > height) {
+			throw new IndexOutOfBoundsException();
+		}
+		
+		putColumn(x, values, values.length);
 	}
 	
 	/**
@@ -546,7 +919,8 @@ public class MatchThreeModel
 	 */
 	public void setMovesLeft() {
 		// Notify observers //
-		if (--movesLeft == 0) {
+		countMove();
+		if (movesLeft == 0) {
 			setChanged();
 			notifyObservers(new String("remove"));
 			setChanged();
@@ -555,83 +929,72 @@ public class MatchThreeModel
 			HighScore highScore = new HighScore();
 			highScore.syncScore("player", score);
 		}
-		
-		setChanged();
-		notifyObservers(new MovesLeftEvent(movesLeft));
 	}
 	
 	/**
-	 * Convenience method for swapping two cells. May leave the board in an
-	 * inconsistent state.
+	 * Set up the model to play back a recording at full speed. Observers are
+	 * no longer notified, no flight recorder events are emitted, and moves
+	 * are only journaled if the recording undoes them.
 	 *
 	 * @author Erik Selstam
-	 * @param first  Coordinates of first cell.
-	 * @param second Coordinates of second cell.
+	 * @param history Whether to journal moves for undo and redo.
 	 */
-	private void swap(final Coordinate first, final Coordinate second) {
-		// Validate arguments //
-		if (first == null || second == null) {
-			throw new NullPointerException();
-		}
-		
-		Jewel firstType  = get(first);
-		Jewel secondType = get(second);
-		set(first, secondType);
-		set(second, firstType);
+	void setPlayback(final boolean history) {
+		tracker.setPlayback(history);
 	}
 	
 	/**
-	 * Progress board into a consistent state.
+	 * Deal new boards until a legal move exists.
+	 *
+	 * @author Erik Selstam
+	 */
+	private void shuffle() {
+		do {
+			deal();
+			shuffles++;
+		} while (moves.isEmpty());
+	}
+	
+	/**
+	 * Progress board into a consistent state, starting from the chains found
+	 * by the last search.
 	 *
 	 * @author Erik Selstam
 	 * @author Linus Aronsson
-	 * @param positions Positions to update.
+	 * @return Number of cascade steps.
 	 */
-	private void update(final Coordinate[] positions) {
-		// Validate argument //
-		// TODO: Add assert on count not exceeding number of cells.
-		if (positions == null) {
-			throw new NullPointerException();
-		}
-		
-		// Prepare cells to update //
-		Coordinate[] affected = positions;
-		
+	private int update() {
 		// Keep clearing chains //
 		// TODO: Increase combo-counter.
-		while (true) {
-			// Find matches //
-			Coordinate[][] chains = findChains(affected);
-			
-			// Bail out if there are no chains //
-			if (chains.length <= 0) {
-				break;
-			}
-			
+		int steps = 0;
+		while (chains.getCount() > 0) {
 			// Clear matches and adjust score //
-			int points = clearChains(chains);
+			steps++;
+			Arrays.fill(dirty, 0);
+			int points = clearChains();
 			score += points;
 			
 			// Notify observers //
-			setChanged();
-			notifyObservers(new ScoreEvent(score));
+			if (!tracker.isSilent()) {
+				long time = EngineStats.start();
+				setChanged();
+				notifyObservers(new ScoreEvent(score));
+				EngineStats.recordNotify(time);
+			}
 			
 			// Drop cells //
 			dropCells();
 			
 			// Refill board //
-			fill();
+			int refills = fill();
 			
-			// Generate new cells to update //
-			// TODO: Currently selects all cells.
-			List<Coordinate> newList = new ArrayList<Coordinate>();
-			for (int x = 0; x < width; x++) {
-				for (int y = 0; y < width; y++) {
-					newList.add(new Coordinate(x, y));
-				}
-			}
-			Coordinate[] newArray = new Coordinate[] {};
-			affected = newList.toArray(newArray);
+			// Notify observers of the step //
+			tracker.endStep(steps, chains.getSize(), refills);
+			
+			// Find matches among the changed cells //
+			board.findChains(MINIMUM_LENGTH, dirty, chains);
 		}
+		
+		return steps;
 	}
 }
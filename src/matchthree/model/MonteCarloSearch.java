@@ -0,0 +1,318 @@
+package matchthree.model;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Move search by parallel Monte Carlo rollouts.
+ *
+ * <p>
+ * Every legal swap is rated by the mean score gain of rollouts that play the
+ * swap on a copy of the board, followed by a number of random moves. The
+ * rollouts are run in rounds giving every swap the same number of rollouts,
+ * split into tasks on a `ForkJoinPool` so that idle workers steal work from
+ * busy ones, until the deadline of the turn is reached.
+ * </p>
+ *
+ * <p>
+ * Each worker thread keeps one scratch model, which is reused for all of its
+ * rollouts. The searched model is only read while a search is running.
+ * </p>
+ *
+ * @author Erik Selstam
+ */
+public final class MonteCarloSearch
+{
+	/** Number of rollouts per swap and round. */
+	private static final int ROUND_SIZE = 8;
+	
+	/** Number of rollouts below which a task is not split further. */
+	private static final int TASK_SIZE = 4;
+	
+	/** Time at which the current search must stop, in nanoseconds. */
+	private long deadline = 0;
+	
+	/** Number of random moves played after the rated swap. */
+	private final int horizon;
+	
+	/** Swaps of the searched model. */
+	private int[] moves = new int[0];
+	
+	/** Number of rollouts, per swap. */
+	private AtomicLongArray plays = null;
+	
+	/** Pool to run rollouts on. */
+	private final ForkJoinPool pool;
+	
+	/** Model being searched. */
+	private MatchThreeModel root = null;
+	
+	/** Number of rollouts of the last search. */
+	private final AtomicLong rollouts = new AtomicLong();
+	
+	/** Scratch model, per worker thread. */
+	private final ThreadLocal<MatchThreeModel> scratch = new ThreadLocal<>();
+	
+	/** Seed of the current search. */
+	private long searchSeed = 0;
+	
+	/** Source of search seeds. */
+	private final SplittableRandom seeds;
+	
+	/** Duration of the last search, in nanoseconds. */
+	private long time = 0;
+	
+	/** Number of rollouts of all searches. */
+	private long totalRollouts = 0;
+	
+	/** Duration of all searches, in nanoseconds. */
+	private long totalTime = 0;
+	
+	/** Sum of the score gains of the rollouts, per swap. */
+	private AtomicLongArray totals = null;
+	
+	/**
+	 * Rollouts of one round, numbered swap by swap.
+	 *
+	 * @author Erik Selstam
+	 */
+	@SuppressWarnings("serial")
+	private final class Rollouts
+		extends RecursiveAction
+	{
+		/** Number of the first rollout. */
+		private final int from;
+		
+		/** Number of the round. */
+		private final int round;
+		
+		/** Number of the last rollout plus one. */
+		private final int to;
+		
+		/**
+		 * Constructor.
+		 *
+		 * @author Erik Selstam
+		 * @param round Number of the round.
+		 * @param from  Number of the first rollout.
+		 * @param to    Number of the last rollout plus one.
+		 */
+		Rollouts(final int round, final int from, final int to) {
+			this.from  = from;
+			this.round = round;
+			this.to    = to;
+		}
+		
+		@Override
+		protected void compute() {
+			// Split larger ranges in half //
+			if (to - from > TASK_SIZE) {
+				int middle = (from + to) >>> 1;
+				invokeAll(
+					new Rollouts(round, from, middle),
+					new Rollouts(round, middle, to)
+				);
+				return;
+			}
+			
+			// Play rollouts, adding up gains per swap //
+			int  move  = from / ROUND_SIZE;
+			long total = 0;
+			int  count = 0;
+			for (int i = from; i < to; i++) {
+				if (System.nanoTime() >= deadline) {
+					break;
+				}
+				if (i / ROUND_SIZE != move) {
+					record(move, total, count);
+					move  = i / ROUND_SIZE;
+					total = 0;
+					count = 0;
+				}
+				int number = round * moves.length * ROUND_SIZE + i;
+				total += rollout(moves[move], number);
+				count++;
+			}
+			record(move, total, count);
+		}
+	}
+	
+	/**
+	 * Constructor.
+	 *
+	 * @author Erik Selstam
+	 * @param pool    Pool to run rollouts on.
+	 * @param horizon Number of random moves played after the rated swap.
+	 * @param seed    Seed for the rollouts.
+	 */
+	public MonteCarloSearch(
+		final ForkJoinPool pool,
+		final int          horizon,
+		final long         seed)
+	{
+		// Validate arguments //
+		if (pool == null) {
+			throw new NullPointerException();
+		}
+		if (horizon < 0) {
+			throw new IllegalArgumentException();
+		}
+		
+		// Assign fields //
+		this.horizon = horizon;
+		this.pool    = pool;
+		this.seeds   = new SplittableRandom(seed);
+	}
+	
+	/**
+	 * Choose the swap with the best mean rollout gain within a time budget.
+	 * Must not be called by more than one thread at a time, and the model
+	 * must not be changed while the search is running.
+	 *
+	 * @author Erik Selstam
+	 * @param model  Model to search. Not changed by the search.
+	 * @param budget Time budget in nanoseconds.
+	 * @return Swap identifier, or -1 if there are no legal moves.
+	 */
+	public int chooseMove(final MatchThreeModel model, final long budget) {
+		// Validate arguments //
+		if (model == null) {
+			throw new NullPointerException();
+		}
+		if (budget < 0) {
+			throw new IllegalArgumentException();
+		}
+		
+		// Set up search //
+		long start = System.nanoTime();
+		deadline   = start + budget;
+		root       = model;
+		searchSeed = seeds.nextLong();
+		moves      = new int[model.getMoveCount()];
+		totals     = new AtomicLongArray(moves.length);
+		plays      = new AtomicLongArray(moves.length);
+		rollouts.set(0);
+		model.getMoves(moves);
+		if (moves.length == 0) {
+			return -1;
+		}
+		
+		// Play rounds of rollouts until out of time //
+		int size = moves.length * ROUND_SIZE;
+		for (int round = 0; System.nanoTime() < deadline; round++) {
+			pool.invoke(new Rollouts(round, 0, size));
+		}
+		
+		// Update metrics //
+		time           = System.nanoTime() - start;
+		totalTime     += time;
+		totalRollouts += rollouts.get();
+		root           = null;
+		EngineStats.recordSearch(rollouts.get(), time);
+		
+		// Pick swap with best mean gain //
+		int    best     = moves[0];
+		double bestMean = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < moves.length; i++) {
+			long   count = plays.get(i);
+			double mean  = (count > 0) ? (double) totals.get(i) / count : 0;
+			if (mean > bestMean) {
+				best     = moves[i];
+				bestMean = mean;
+			}
+		}
+		return best;
+	}
+	
+	/**
+	 * Get the number of rollouts played by the last search.
+	 *
+	 * @author Erik Selstam
+	 * @return The number of rollouts.
+	 */
+	public long getRolloutCount() {
+		return rollouts.get();
+	}
+	
+	/**
+	 * Get the rollout throughput of the last search.
+	 *
+	 * @author Erik Selstam
+	 * @return The number of rollouts per second.
+	 */
+	public double getRolloutRate() {
+		return (time > 0) ? rollouts.get() * 1e9 / time : 0;
+	}
+	
+	/**
+	 * Get the rollout throughput of all searches so far.
+	 *
+	 * @author Erik Selstam
+	 * @return The number of rollouts per second.
+	 */
+	public double getTotalRolloutRate() {
+		return (totalTime > 0) ? totalRollouts * 1e9 / totalTime : 0;
+	}
+	
+	/**
+	 * Add up the gains of a number of rollouts of a swap.
+	 *
+	 * @author Erik Selstam
+	 * @param move  Index of the swap.
+	 * @param total Sum of the score gains.
+	 * @param count Number of rollouts.
+	 */
+	private void record(final int move, final long total, final int count) {
+		if (count == 0) {
+			return;
+		}
+		totals.addAndGet(move, total);
+		plays.addAndGet(move, count);
+		rollouts.addAndGet(count);
+	}
+	
+	/**
+	 * Play a rollout on the scratch model of the current thread.
+	 *
+	 * @author Erik Selstam
+	 * @param swap   Swap identifier of the rated move.
+	 * @param number Number of the rollout within the search.
+	 * @return Score gain of the rollout.
+	 */
+	private int rollout(final int swap, final int number) {
+		// Get scratch model //
+		MatchThreeModel model = scratch.get();
+		if (model == null
+			|| model.getWidth() != root.getWidth()
+			|| model.getHeight() != root.getHeight())
+		{
+			int width  = root.getWidth();
+			int height = root.getHeight();
+			model = new MatchThreeModel(
+				new Jewel[width * height], width, height, 0
+			);
+			scratch.set(model);
+		}
+		
+		// Play rated move //
+		long seed = MatchThreeModel.getChildSeed(searchSeed, number);
+		model.copyFrom(root, seed);
+		model.move(model.getSwapSource(swap), model.getSwapTarget(swap));
+		
+		// Play random moves //
+		// NOTE: The moves are chosen from the first child stream of the seed
+		//       not used for the refills of a move.
+		SplittableRandom random = new SplittableRandom(
+			MatchThreeModel.getChildSeed(seed, horizon + 1)
+		);
+		for (int i = 0; i < horizon; i++) {
+			int next = model.getMove(random.nextInt(model.getMoveCount()));
+			model.move(model.getSwapSource(next), model.getSwapTarget(next));
+		}
+		
+		return model.getScore() - root.getScore();
+	}
+}
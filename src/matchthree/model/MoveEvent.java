@@ -0,0 +1,93 @@
+package matchthree.model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of a move, spanning its validation and cascade.
+ *
+ * @author Erik Selstam
+ */
+@Category({"MatchThree", "Engine"})
+@Description("Move made on a game model, including its cascade")
+@Label("Move")
+@Name("matchthree.Move")
+@StackTrace(false)
+final class MoveEvent
+	extends Event
+{
+	/** Event of the moves of models emitting no events. Never committed. */
+	static final MoveEvent DISABLED = new MoveEvent();
+	
+	/** X-coordinate of the source cell. */
+	@Label("Source X")
+	private final int fromX;
+	
+	/** Y-coordinate of the source cell. */
+	@Label("Source Y")
+	private final int fromY;
+	
+	/** Whether the event is committed. Not part of the event. */
+	private final transient boolean enabled;
+	
+	/** Outcome of the move. */
+	@Label("Result")
+	private String result = null;
+	
+	/** X-coordinate of the destination cell. */
+	@Label("Destination X")
+	private final int toX;
+	
+	/** Y-coordinate of the destination cell. */
+	@Label("Destination Y")
+	private final int toY;
+	
+	/**
+	 * Create the event that is never committed.
+	 *
+	 * @author Erik Selstam
+	 */
+	private MoveEvent() {
+		this.enabled = false;
+		this.fromX   = 0;
+		this.fromY   = 0;
+		this.toX     = 0;
+		this.toY     = 0;
+	}
+	
+	/**
+	 * Begin the event of a move.
+	 *
+	 * @author Erik Selstam
+	 * @param from  Row-major index of the source cell.
+	 * @param to    Row-major index of the destination cell.
+	 * @param width Number of columns.
+	 */
+	MoveEvent(final int from, final int to, final int width) {
+		this.enabled = true;
+		this.fromX   = from % width;
+		this.fromY   = from / width;
+		this.toX     = to % width;
+		this.toY     = to / width;
+		begin();
+	}
+	
+	/**
+	 * End the event, and commit it if enabled and a recording is running.
+	 *
+	 * @author Erik Selstam
+	 * @param type Outcome of the move.
+	 * @return The outcome, for returning from the move.
+	 */
+	MatchThreeModel.MoveType finish(final MatchThreeModel.MoveType type) {
+		if (enabled && shouldCommit()) {
+			result = type.name();
+			commit();
+		}
+		return type;
+	}
+}
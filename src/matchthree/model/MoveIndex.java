@@ -0,0 +1,368 @@
+package matchthree.model;
+
+import java.util.Arrays;
+
+/**
+ * Index of the legal swaps of adjacent cells on a board. Each swap is kept as
+ * one bit, so looking up a swap and counting the legal swaps are constant-time
+ * operations.
+ *
+ * <p>
+ * Changes to the board are recorded as stale row spans per column, and only
+ * the swaps whose outcome depends on a stale cell are checked again when the
+ * index is refreshed.
+ * </p>
+ *
+ * <p>
+ * A swap is identified by the row-major index of its top or left cell times
+ * two, plus one if the other cell is below it rather than to the right.
+ * </p>
+ *
+ * @author Erik Selstam
+ */
+final class MoveIndex
+{
+	/** Base two logarithm of the number of bits in a word. */
+	private static final int WORD_SHIFT = 6;
+	
+	/** Legal swaps, one bit per swap. */
+	private final long[] bits;
+	
+	/** Board to index. */
+	private final BitBoard board;
+	
+	/** Number of legal swaps. */
+	private int count = 0;
+	
+	/** Number of rows. */
+	private final int height;
+	
+	/** Legal swap found by the last search of the board. */
+	private int hint = 0;
+	
+	/** Minimum chain length. */
+	private final int minimum;
+	
+	/**
+	 * Distance in cells, along a line, from a swapped cell to the furthest
+	 * cell of a chain the swap can complete.
+	 */
+	private final int reach;
+	
+	/** Index of the last stale row, per column. */
+	private final int[] staleBottom;
+	
+	/** Leftmost column with stale rows. */
+	private int staleLeft;
+	
+	/** Rightmost column with stale rows, or -1 if nothing is stale. */
+	private int staleRight = -1;
+	
+	/** Index of the first stale row, per column. */
+	private final int[] staleTop;
+	
+	/** Number of columns. */
+	private final int width;
+	
+	/**
+	 * Create an index for a board. The index is stale until rebuilt.
+	 *
+	 * @author Erik Selstam
+	 * @param board   Board to index.
+	 * @param minimum Minimum chain length.
+	 */
+	MoveIndex(final BitBoard board, final int minimum) {
+		this.board   = board;
+		this.minimum = minimum;
+		this.reach   = minimum - 1;
+		this.width   = board.getWidth();
+		this.height  = board.getHeight();
+		
+		bits        = new long[(width * height * 2 - 1) / Long.SIZE + 1];
+		staleTop    = new int[width];
+		staleBottom = new int[width];
+		staleLeft   = width;
+		Arrays.fill(staleTop, height);
+		Arrays.fill(staleBottom, -1);
+	}
+	
+	/**
+	 * Check on the board whether a swap is legal.
+	 *
+	 * @author Erik Selstam
+	 * @param swap Swap identifier.
+	 * @return Whether the swap is legal.
+	 */
+	private boolean check(final int swap) {
+		int x = (swap >>> 1) % width;
+		int y = (swap >>> 1) / width;
+		if ((swap & 1) == 0) {
+			return x + 1 < width
+				&& board.isLegalMove(true, y, x, x + 1, minimum);
+		}
+		return y + 1 < height
+			&& board.isLegalMove(false, x, y, y + 1, minimum);
+	}
+	
+	/**
+	 * Check whether a swap is legal.
+	 *
+	 * @author Erik Selstam
+	 * @param swap Swap identifier.
+	 * @return Whether the swap is legal.
+	 */
+	boolean contains(final int swap) {
+		refresh();
+		return (bits[swap >>> WORD_SHIFT] & (1L << swap)) != 0;
+	}
+	
+	/**
+	 * Copy the contents of another index of the same size.
+	 *
+	 * @author Erik Selstam
+	 * @param source Index to copy.
+	 */
+	void copyFrom(final MoveIndex source) {
+		assert source.width == width && source.height == height;
+		
+		System.arraycopy(source.bits, 0, bits, 0, bits.length);
+		System.arraycopy(source.staleTop, 0, staleTop, 0, width);
+		System.arraycopy(source.staleBottom, 0, staleBottom, 0, width);
+		count      = source.count;
+		staleLeft  = source.staleLeft;
+		staleRight = source.staleRight;
+	}
+	
+	/**
+	 * Get a legal swap.
+	 *
+	 * @author Erik Selstam
+	 * @param n Number of the swap, counted in identifier order. Must be less
+	 *          than the number of legal swaps.
+	 * @return Swap identifier.
+	 */
+	int get(final int n) {
+		refresh();
+		
+		// Find word holding the swap //
+		int left = n;
+		int word = 0;
+		while (Long.bitCount(bits[word]) <= left) {
+			left -= Long.bitCount(bits[word]);
+			word++;
+		}
+		
+		// Find bit within word //
+		long value = bits[word];
+		for (int i = 0; i < left; i++) {
+			value &= value - 1;
+		}
+		return (word << WORD_SHIFT) + Long.numberOfTrailingZeros(value);
+	}
+	
+	/**
+	 * Copy legal swaps into an array.
+	 *
+	 * @author Erik Selstam
+	 * @param swaps Array to fill with swap identifiers.
+	 * @return Number of swaps copied, at most the length of `swaps`.
+	 */
+	int getAll(final int[] swaps) {
+		refresh();
+		
+		int copied = 0;
+		for (int word = 0; word < bits.length; word++) {
+			long value = bits[word];
+			while (value != 0 && copied < swaps.length) {
+				swaps[copied++] =
+					(word << WORD_SHIFT) + Long.numberOfTrailingZeros(value);
+				value &= value - 1;
+			}
+		}
+		return copied;
+	}
+	
+	/**
+	 * Get the number of legal swaps.
+	 *
+	 * @author Erik Selstam
+	 * @return The number of legal swaps.
+	 */
+	int getCount() {
+		refresh();
+		return count;
+	}
+	
+	/**
+	 * Record a changed cell.
+	 *
+	 * @author Erik Selstam
+	 * @param x X-coordinate of the cell.
+	 * @param y Y-coordinate of the cell.
+	 */
+	void invalidate(final int x, final int y) {
+		invalidate(x, y, y);
+	}
+	
+	/**
+	 * Record changed cells in a column.
+	 *
+	 * @author Erik Selstam
+	 * @param x      X-coordinate of the column.
+	 * @param top    Y-coordinate of the first changed cell.
+	 * @param bottom Y-coordinate of the last changed cell.
+	 */
+	void invalidate(final int x, final int top, final int bottom) {
+		staleTop[x]    = Math.min(staleTop[x], top);
+		staleBottom[x] = Math.max(staleBottom[x], bottom);
+		staleLeft      = Math.min(staleLeft, x);
+		staleRight     = Math.max(staleRight, x);
+	}
+	
+	/**
+	 * Check whether the board has no legal swaps. A fresh index is looked up,
+	 * and a stale one is not refreshed: the board is searched up to the first
+	 * legal swap instead, starting at the swap found by the last search, as
+	 * most moves leave it legal. This is cheaper than checking every stale
+	 * swap when moves are made faster than the index is read.
+	 *
+	 * @author Erik Selstam
+	 * @return Whether no swap is legal.
+	 */
+	boolean isEmpty() {
+		// Look up fresh index //
+		if (staleRight < 0) {
+			return count == 0;
+		}
+		
+		// Search board, starting at the last found swap //
+		int swaps = width * height * 2;
+		for (int i = 0; i < swaps; i++) {
+			int swap = (hint + i) % swaps;
+			if (check(swap)) {
+				hint = swap;
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Check whether a move would create a chain. Only straight, non-empty
+	 * moves are legal. Swaps of adjacent cells are looked up while the index
+	 * is fresh, and other moves are checked on the board, so checking a move
+	 * never refreshes the index.
+	 *
+	 * @author Erik Selstam
+	 * @param from Row-major index of the source cell.
+	 * @param to   Row-major index of the destination cell.
+	 * @return Whether the move is legal.
+	 */
+	boolean isLegalMove(final int from, final int to) {
+		// Only straight, non-empty moves are legal //
+		boolean horizontal = from / width == to / width;
+		boolean vertical   = from % width == to % width;
+		if (horizontal == vertical) {
+			return false;
+		}
+		
+		// Unpack coordinates along the line of the move //
+		int line  = horizontal ? from / width : from % width;
+		int start = horizontal ? from % width : from / width;
+		int end   = horizontal ? to % width   : to / width;
+		
+		// Look up swaps of adjacent cells //
+		if (Math.abs(end - start) == 1 && staleRight < 0) {
+			int first = Math.min(start, end);
+			int swap  = horizontal ? (line * width + first) * 2
+				: (first * width + line) * 2 + 1;
+			return contains(swap);
+		}
+		
+		return board.isLegalMove(horizontal, line, start, end, minimum);
+	}
+	
+	/**
+	 * Check both swaps of a cell again.
+	 *
+	 * @author Erik Selstam
+	 * @param x X-coordinate of the top or left cell of the swaps.
+	 * @param y Y-coordinate of the top or left cell of the swaps.
+	 */
+	private void recheck(final int x, final int y) {
+		int swap = (y * width + x) * 2;
+		store(swap, check(swap));
+		store(swap + 1, check(swap + 1));
+	}
+	
+	/**
+	 * Check the swaps depending on stale cells again.
+	 *
+	 * @author Erik Selstam
+	 */
+	void refresh() {
+		// Skip clean index //
+		if (staleRight < 0) {
+			return;
+		}
+		
+		// Check swaps whose cells are within reach of a stale cell //
+		int left  = Math.max(staleLeft - reach - 1, 0);
+		int right = Math.min(staleRight + reach, width - 1);
+		for (int x = left; x <= right; x++) {
+			// Find rows within reach of stale cells in nearby columns //
+			int top    = height;
+			int bottom = -1;
+			int from   = Math.max(x - reach, 0);
+			int to     = Math.min(x + reach + 1, width - 1);
+			for (int column = from; column <= to; column++) {
+				top    = Math.min(top, staleTop[column]);
+				bottom = Math.max(bottom, staleBottom[column]);
+			}
+			
+			// Check swaps //
+			int first = Math.max(top - reach - 1, 0);
+			int last  = Math.min(bottom + reach, height - 1);
+			for (int y = first; y <= last; y++) {
+				recheck(x, y);
+			}
+		}
+		
+		// Mark index clean //
+		Arrays.fill(staleTop, staleLeft, staleRight + 1, height);
+		Arrays.fill(staleBottom, staleLeft, staleRight + 1, -1);
+		staleLeft  = width;
+		staleRight = -1;
+	}
+	
+	/**
+	 * Check every swap on the board again.
+	 *
+	 * @author Erik Selstam
+	 */
+	void rebuild() {
+		for (int x = 0; x < width; x++) {
+			invalidate(x, 0, height - 1);
+		}
+		refresh();
+	}
+	
+	/**
+	 * Set whether a swap is legal.
+	 *
+	 * @author Erik Selstam
+	 * @param swap  Swap identifier.
+	 * @param legal Whether the swap is legal.
+	 */
+	private void store(final int swap, final boolean legal) {
+		long mask = 1L << swap;
+		long word = bits[swap >>> WORD_SHIFT];
+		if (legal && (word & mask) == 0) {
+			bits[swap >>> WORD_SHIFT] = word | mask;
+			count++;
+		} else if (!legal && (word & mask) != 0) {
+			bits[swap >>> WORD_SHIFT] = word & ~mask;
+			count--;
+		}
+	}
+}
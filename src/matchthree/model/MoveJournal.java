@@ -0,0 +1,455 @@
+package matchthree.model;
+
+import java.util.Arrays;
+
+/**
+ * Undo and redo history of the moves of a model.
+ *
+ * <p>
+ * Each move is stored as its source and destination, the score and number
+ * of moves left before and after, and the net change of every cell it
+ * touched, whether the cell was shifted, cleared, dropped into or refilled.
+ * A change is packed into a single `long` holding the cell index and the old
+ * and new jewel types, so undoing or redoing a move only costs as much as the
+ * cells it changed, regardless of the size of the board. Refills need no
+ * state of their own, as the model draws the refills of each move from a
+ * stream given by the number of moves made, which undo and redo update.
+ * </p>
+ *
+ * <p>
+ * Only changes made by `move` are recorded. Making a move after undoing
+ * others discards the undone moves.
+ * </p>
+ *
+ * <p>
+ * Independently of the undo history, every move, undo and redo since the
+ * game was initialized is kept as a replay event, so that the whole game can
+ * be replayed from its seed.
+ * </p>
+ *
+ * @author Erik Selstam
+ */
+public final class MoveJournal
+{
+	/** Number of bits per packed jewel type. */
+	private static final int CODE_BITS = 4;
+	
+	/** Mask of a packed jewel type. */
+	private static final int CODE_MASK = (1 << CODE_BITS) - 1;
+	
+	/** Initial number of moves and changes the buffers can hold. */
+	private static final int INITIAL_CAPACITY = 64;
+	
+	/** Jewel types, indexed by packed type minus one. */
+	private static final Jewel[] JEWELS = Jewel.values();
+	
+	/** Packed types of the touched cells before the current move. */
+	private byte[] before = new byte[INITIAL_CAPACITY];
+	
+	/** Packed cell changes of all moves, move by move. */
+	private long[] changes = new long[INITIAL_CAPACITY];
+	
+	/** Number of stored cell changes. */
+	private int changeCount = 0;
+	
+	/** Whether moves and replay events are recorded. */
+	private boolean enabled = true;
+	
+	/** Packed events of the game, for replays. */
+	private long[] events = new long[INITIAL_CAPACITY];
+	
+	/** Number of recorded events. */
+	private int eventCount = 0;
+	
+	/** Index of the last change plus one, per move. */
+	private int[] ends = new int[INITIAL_CAPACITY];
+	
+	/** Source cell index, per move. */
+	private int[] froms = new int[INITIAL_CAPACITY];
+	
+	/** Model to record. */
+	private final MatchThreeModel model;
+	
+	/**
+	 * Number of moves left after the move, per move. Only stored once the
+	 * move is undone, as the model counts moves after making them.
+	 */
+	private int[] movesAfter = new int[INITIAL_CAPACITY];
+	
+	/** Number of moves left before the move, per move. */
+	private int[] movesBefore = new int[INITIAL_CAPACITY];
+	
+	/** Number of moves currently applied to the model. */
+	private int position = 0;
+	
+	/** Whether a move is being recorded. */
+	private boolean recording = false;
+	
+	/** Score after the move, per move. */
+	private int[] scoresAfter = new int[INITIAL_CAPACITY];
+	
+	/** Score before the move, per move. */
+	private int[] scoresBefore = new int[INITIAL_CAPACITY];
+	
+	/** Number of recorded moves, including undone ones. */
+	private int size = 0;
+	
+	/** Start time of the game, in nanoseconds. */
+	private long start = System.nanoTime();
+	
+	/** Time of each event since the start of the game, in milliseconds. */
+	private int[] times = new int[INITIAL_CAPACITY];
+	
+	/** Destination cell index, per move. */
+	private int[] tos = new int[INITIAL_CAPACITY];
+	
+	/** Cells touched by the current move. */
+	private final ChangeSet touched;
+	
+	/** Number of columns. */
+	private final int width;
+	
+	/**
+	 * Create an empty journal.
+	 *
+	 * @author Erik Selstam
+	 * @param model  Model to record.
+	 * @param width  Number of columns.
+	 * @param height Number of rows.
+	 */
+	MoveJournal(
+		final MatchThreeModel model,
+		final int             width,
+		final int             height)
+	{
+		this.model   = model;
+		this.touched = new ChangeSet(width * height);
+		this.width   = width;
+	}
+	
+	/**
+	 * Get the packed type of a jewel.
+	 *
+	 * @author Erik Selstam
+	 * @param jewel Jewel, or null for an empty cell.
+	 * @return The packed type.
+	 */
+	private static int code(final Jewel jewel) {
+		return (jewel != null) ? jewel.ordinal() + 1 : 0;
+	}
+	
+	/**
+	 * Get the jewel of a packed type.
+	 *
+	 * @author Erik Selstam
+	 * @param code Packed type.
+	 * @return The jewel, or null for an empty cell.
+	 */
+	private static Jewel jewel(final int code) {
+		return (code != 0) ? JEWELS[code - 1] : null;
+	}
+	
+	/**
+	 * Start recording a move. Discards any undone moves.
+	 *
+	 * @author Erik Selstam
+	 * @param from  Row-major index of the source cell.
+	 * @param to    Row-major index of the destination cell.
+	 * @param score Score before the move.
+	 */
+	void begin(final int from, final int to, final int score) {
+		// Skip disabled journal //
+		if (!enabled) {
+			return;
+		}
+		
+		// Discard undone moves //
+		size        = position;
+		changeCount = (position > 0) ? ends[position - 1] : 0;
+		
+		// Grow move buffers //
+		if (size == ends.length) {
+			int capacity = ends.length * 2;
+			ends         = Arrays.copyOf(ends, capacity);
+			froms        = Arrays.copyOf(froms, capacity);
+			movesAfter   = Arrays.copyOf(movesAfter, capacity);
+			movesBefore  = Arrays.copyOf(movesBefore, capacity);
+			scoresAfter  = Arrays.copyOf(scoresAfter, capacity);
+			scoresBefore = Arrays.copyOf(scoresBefore, capacity);
+			tos          = Arrays.copyOf(tos, capacity);
+		}
+		
+		// Start move //
+		froms[size]        = from;
+		tos[size]          = to;
+		scoresBefore[size] = score;
+		movesBefore[size]  = model.getMovesLeft();
+		touched.clear();
+		recording = true;
+		record(((long) froms[size] << 32) | tos[size]);
+	}
+	
+	/**
+	 * Check whether an undone move can be redone.
+	 *
+	 * @author Erik Selstam
+	 * @return Whether `redo` would change the model.
+	 */
+	public boolean canRedo() {
+		return enabled && position < size;
+	}
+	
+	/**
+	 * Check whether a move can be undone.
+	 *
+	 * @author Erik Selstam
+	 * @return Whether `undo` would change the model.
+	 */
+	public boolean canUndo() {
+		return enabled && position > 0;
+	}
+	
+	/**
+	 * Remove all moves.
+	 *
+	 * @author Erik Selstam
+	 */
+	void clear() {
+		changeCount = 0;
+		eventCount  = 0;
+		position    = 0;
+		recording   = false;
+		size        = 0;
+		start       = System.nanoTime();
+	}
+	
+	/**
+	 * Finish recording a move, storing the net change of every touched cell.
+	 *
+	 * @author Erik Selstam
+	 * @param score Score after the move.
+	 */
+	void end(final int score) {
+		// Count move only //
+		if (!enabled) {
+			position++;
+			return;
+		}
+		
+		// Store changed cells //
+		for (int i = 0; i < touched.getCount(); i++) {
+			int index = touched.get(i);
+			int now   = code(model.board.get(index));
+			if (now == before[i]) {
+				continue;
+			}
+			if (changeCount == changes.length) {
+				changes = Arrays.copyOf(changes, changes.length * 2);
+			}
+			changes[changeCount++] = ((long) index << (2 * CODE_BITS))
+				| (before[i] << CODE_BITS)
+				| now;
+		}
+		
+		// Finish move //
+		ends[size]        = changeCount;
+		scoresAfter[size] = score;
+		size++;
+		position  = size;
+		recording = false;
+	}
+	
+	/**
+	 * Get the source of a recorded move.
+	 *
+	 * @author Erik Selstam
+	 * @param move Number of the move, counted from the start of the game.
+	 * @return The source coordinates.
+	 */
+	public Coordinate getFrom(final int move) {
+		// Validate argument //
+		if (move < 0 || move >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+		
+		return new Coordinate(froms[move] % width, froms[move] / width);
+	}
+	
+	/**
+	 * Get the number of moves currently applied to the model.
+	 *
+	 * @author Erik Selstam
+	 * @return The number of moves made and not undone.
+	 */
+	public int getPosition() {
+		return position;
+	}
+	
+	/**
+	 * Get a recording of the game since it was initialized. Games started
+	 * from a given board instead of a seed, or changed other than by moves,
+	 * undo and redo, cannot be replayed.
+	 *
+	 * @author Erik Selstam
+	 * @return The recording.
+	 */
+	public Replay getReplay() {
+		return new Replay(model, events, times, eventCount);
+	}
+	
+	/**
+	 * Get the number of recorded moves, including undone ones.
+	 *
+	 * @author Erik Selstam
+	 * @return The number of moves.
+	 */
+	public int getSize() {
+		return size;
+	}
+	
+	/**
+	 * Get the destination of a recorded move.
+	 *
+	 * @author Erik Selstam
+	 * @param move Number of the move, counted from the start of the game.
+	 * @return The destination coordinates.
+	 */
+	public Coordinate getTo(final int move) {
+		// Validate argument //
+		if (move < 0 || move >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+		
+		return new Coordinate(tos[move] % width, tos[move] / width);
+	}
+	
+	/**
+	 * Add a replay event.
+	 *
+	 * @author Erik Selstam
+	 * @param event Packed event.
+	 */
+	private void record(final long event) {
+		if (eventCount == events.length) {
+			events = Arrays.copyOf(events, events.length * 2);
+			times  = Arrays.copyOf(times, times.length * 2);
+		}
+		times[eventCount]    = (int) ((System.nanoTime() - start) / 1_000_000);
+		events[eventCount++] = event;
+	}
+	
+	/**
+	 * Redo the last undone move. Observers are notified of the changed cells
+	 * as one batch.
+	 *
+	 * @author Erik Selstam
+	 * @return Whether a move was redone.
+	 */
+	public boolean redo() {
+		if (!canRedo()) {
+			return false;
+		}
+		
+		// Apply new cell values //
+		int move  = position++;
+		int start = (move > 0) ? ends[move - 1] : 0;
+		model.beginBatch();
+		for (int i = start; i < ends[move]; i++) {
+			int index = (int) (changes[i] >>> (2 * CODE_BITS));
+			int code  = (int) changes[i] & CODE_MASK;
+			model.set(index % width, index / width, jewel(code));
+		}
+		model.restoreCounters(scoresAfter[move], movesAfter[move]);
+		model.endBatch();
+		record(Replay.REDO);
+		
+		return true;
+	}
+	
+	/**
+	 * Set whether moves and replay events are recorded. A disabled journal
+	 * only counts the moves made, which still selects their refills, so a
+	 * game played without one ends the same. Moves made while disabled cannot
+	 * be undone, and are missing from the recording of the game.
+	 *
+	 * @author Erik Selstam
+	 * @param enabled Whether to record moves.
+	 */
+	void setEnabled(final boolean enabled) {
+		this.enabled = enabled;
+	}
+	
+	/**
+	 * Record the value of a cell before the current move first changes it.
+	 * Does nothing unless a move is being recorded.
+	 *
+	 * @author Erik Selstam
+	 * @param x     X-coordinate of the cell.
+	 * @param y     Y-coordinate of the cell.
+	 * @param value Current value of the cell.
+	 */
+	void touch(final int x, final int y, final Jewel value) {
+		// Skip cells already touched //
+		if (!recording) {
+			return;
+		}
+		int count = touched.getCount();
+		touched.add(y * width + x);
+		if (touched.getCount() == count) {
+			return;
+		}
+		
+		// Store old value //
+		if (count == before.length) {
+			before = Arrays.copyOf(before, before.length * 2);
+		}
+		before[count] = (byte) code(value);
+	}
+	
+	/**
+	 * Record the value of every cell before the current move replaces the
+	 * whole board. Does nothing unless a move is being recorded.
+	 *
+	 * @author Erik Selstam
+	 * @param board Board about to be replaced.
+	 */
+	void touchAll(final BitBoard board) {
+		if (!recording) {
+			return;
+		}
+		for (int y = 0; y < board.getHeight(); y++) {
+			for (int x = 0; x < width; x++) {
+				touch(x, y, board.get(x, y));
+			}
+		}
+	}
+	
+	/**
+	 * Undo the last move. Observers are notified of the changed cells as one
+	 * batch.
+	 *
+	 * @author Erik Selstam
+	 * @return Whether a move was undone.
+	 */
+	public boolean undo() {
+		if (!canUndo()) {
+			return false;
+		}
+		
+		// Restore old cell values, latest first //
+		int move  = --position;
+		int start = (move > 0) ? ends[move - 1] : 0;
+		movesAfter[move] = model.getMovesLeft();
+		model.beginBatch();
+		for (int i = ends[move] - 1; i >= start; i--) {
+			int index = (int) (changes[i] >>> (2 * CODE_BITS));
+			int code  = (int) (changes[i] >>> CODE_BITS) & CODE_MASK;
+			model.set(index % width, index / width, jewel(code));
+		}
+		model.restoreCounters(scoresBefore[move], movesBefore[move]);
+		model.endBatch();
+		record(Replay.UNDO);
+		
+		return true;
+	}
+}
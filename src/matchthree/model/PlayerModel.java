@@ -5,9 +5,10 @@ import java.net.DatagramSocket;
 import java.net.InetAddress;
 import java.net.SocketException;
 import matchthree.controller.Server;
+import matchthree.message.BoardDelta;
 import matchthree.message.Message;
 import matchthree.message.UpdateBoard;
-import matchthree.message.UpdateCell;
+import matchthree.message.UpdateDelta;
 import matchthree.message.UpdateGameFinished;
 import matchthree.message.UpdateMovesLeft;
 import matchthree.message.UpdateScore;
@@ -94,29 +95,6 @@ public class PlayerModel
 		gameStarted = b;
 	}
 	
-	/**
-	 * Set the value of a cell. May leave the board in an inconsistent state.
-	 * Also sends the updated cell to the opponent.
-	 *
-	 * <p>
-	 * This override also notifies the opponent of the change by sending
-	 * a datagram packet.
-	 * </p>
-	 *
-	 * @author Linus Aronsson
-	 * @param x     X-coordinate of the cell.
-	 * @param y     Y-coordinate of the cell.
-	 * @param value Value to set.
-	 */
-	@Override
-	public void set(final int x, final int y, final Jewel value) {
-		super.set(x, y, value);
-		// Notify opponent //
-		if (gameStarted) {
-			notifyOpponent(new UpdateCell(x, y, value));
-		}
-	}
-	
 	/**
 	 * Sets the moves left. Also notifies the opponent the the moves left
 	 * value has changed.
@@ -156,6 +134,35 @@ public class PlayerModel
 		return type;
 	}
 	
+	/**
+	 * Check whether the changed cells must be published as a delta. Holds
+	 * while in-game, as the opponent is then sent every delta whether or not
+	 * a view observes this model.
+	 *
+	 * @author Erik Selstam
+	 * @return Whether to call `notifyDelta` for changed cells.
+	 */
+	@Override
+	protected boolean needsDelta() {
+		return gameStarted || super.needsDelta();
+	}
+	
+	/**
+	 * Notify observers of the cells changed by one step of a move or cascade.
+	 * Also sends the changed cells to the opponent.
+	 *
+	 * @author Erik Selstam
+	 * @param delta Changed cells.
+	 */
+	@Override
+	protected void notifyDelta(final BoardDelta delta) {
+		super.notifyDelta(delta);
+		// Notify opponent //
+		if (gameStarted) {
+			notifyOpponent(new UpdateDelta(delta));
+		}
+	}
+	
 	/**
 	 * Sends the entire board over. This is only done once at the start.
 	 *
@@ -163,7 +170,7 @@ public class PlayerModel
 	 * @param port Port of opponent.
 	 */
 	public void sendBoard(final int port) {
-		Server.sendDatagram(new UpdateBoard(board), client, ip, port);
+		Server.sendDatagram(new UpdateBoard(getBoard()), client, ip, port);
 	}
 	
 	/**
@@ -0,0 +1,128 @@
+package matchthree.model;
+
+import java.util.function.IntBinaryOperator;
+import java.util.random.RandomGenerator;
+
+/**
+ * Rule by which empty cells are refilled, shared by `BitBoard` and
+ * `CascadeResolver` so that the model and the resolver refill a board the
+ * same way.
+ *
+ * <p>
+ * A jewel is drawn from the types that do not complete a chain with the
+ * neighboring cells. Should every type complete a chain, which cannot happen
+ * with five jewel types, the jewel is drawn from all types.
+ * </p>
+ *
+ * @author Erik Selstam
+ */
+final class RefillRule
+{
+	/** Mask with one bit set for each jewel type. */
+	private static final int ALL_JEWELS = (1 << BitBoard.KINDS) - 1;
+	
+	/** Cell code of an empty cell. */
+	private static final int EMPTY = BitBoard.EMPTY;
+	
+	/**
+	 * Forbidden constructor.
+	 *
+	 * @author Erik Selstam
+	 */
+	private RefillRule() {
+		throw new UnsupportedOperationException();
+	}
+	
+	/**
+	 * Get the jewel type mask bit of a cell code.
+	 *
+	 * @author Erik Selstam
+	 * @param code Cell code.
+	 * @return Mask with the bit of the jewel type set, or 0 if empty.
+	 */
+	private static int bit(final int code) {
+		return (code != EMPTY) ? 1 << (code - 1) : 0;
+	}
+	
+	/**
+	 * Draw a random jewel for a cell.
+	 *
+	 * @author Erik Selstam
+	 * @param cells  Cell code at an x- and y-coordinate of the board.
+	 * @param width  Number of columns.
+	 * @param height Number of rows.
+	 * @param x      X-coordinate of the cell.
+	 * @param y      Y-coordinate of the cell.
+	 * @param random Generator to draw from.
+	 * @return The cell code of the drawn jewel.
+	 */
+	static int draw(
+		final IntBinaryOperator cells,
+		final int               width,
+		final int               height,
+		final int               x,
+		final int               y,
+		final RandomGenerator   random)
+	{
+		// Get allowed jewels //
+		int options = ALL_JEWELS & ~getForbidden(cells, width, height, x, y);
+		if (options == 0) {
+			options = ALL_JEWELS;
+			EngineStats.recordFallback();
+		}
+		
+		// Pick a random option //
+		int choice = random.nextInt(Integer.bitCount(options));
+		for (int i = 0; i < choice; i++) {
+			options &= options - 1;
+		}
+		return Integer.numberOfTrailingZeros(options) + 1;
+	}
+	
+	/**
+	 * Get the jewel types that would complete a run of three through a cell,
+	 * given its neighbors.
+	 *
+	 * @author Erik Selstam
+	 * @param cells  Cell code at an x- and y-coordinate of the board.
+	 * @param width  Number of columns.
+	 * @param height Number of rows.
+	 * @param x      X-coordinate of the cell.
+	 * @param y      Y-coordinate of the cell.
+	 * @return Mask with bit `n` set if jewel type `n` is forbidden.
+	 */
+	private static int getForbidden(
+		final IntBinaryOperator cells,
+		final int               width,
+		final int               height,
+		final int               x,
+		final int               y)
+	{
+		int left  = (x >= 1) ? cells.applyAsInt(x - 1, y) : EMPTY;
+		int right = (x + 1 < width) ? cells.applyAsInt(x + 1, y) : EMPTY;
+		int up    = (y >= 1) ? cells.applyAsInt(x, y - 1) : EMPTY;
+		int down  = (y + 1 < height) ? cells.applyAsInt(x, y + 1) : EMPTY;
+		
+		// Pairs on either side, and single neighbors on both sides //
+		int mask = 0;
+		if (x >= 2 && left == cells.applyAsInt(x - 2, y)) {
+			mask |= bit(left);
+		}
+		if (x + 2 < width && right == cells.applyAsInt(x + 2, y)) {
+			mask |= bit(right);
+		}
+		if (left == right) {
+			mask |= bit(left);
+		}
+		if (y >= 2 && up == cells.applyAsInt(x, y - 2)) {
+			mask |= bit(up);
+		}
+		if (y + 2 < height && down == cells.applyAsInt(x, y + 2)) {
+			mask |= bit(down);
+		}
+		if (up == down) {
+			mask |= bit(up);
+		}
+		return mask;
+	}
+}
@@ -0,0 +1,128 @@
+package matchthree.model;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Refill generator of a game. The first board is dealt from the seed of the
+ * game, and each move draws its refills from its own child stream of that
+ * seed, selected by the number of moves made, so that undoing a move also
+ * rewinds its refills.
+ *
+ * <p>
+ * The generator is reseeded in place, so moves allocate nothing. Values are
+ * drawn with the SplitMix64 algorithm of `SplittableRandom`, and are the same
+ * as those of a `SplittableRandom` created with the same seed, so a
+ * `CascadeResolver` given one refills a board the same way as a model.
+ * </p>
+ *
+ * @author Erik Selstam
+ */
+final class RefillStream
+	implements RandomGenerator
+{
+	/** Odd multiplier spreading the numbers of child streams. */
+	private static final long CHILD_GAMMA = 0xd1b54a32d192ed03L;
+	
+	/** Seed of the game. */
+	private long seed = 0;
+	
+	/** Generator state, advanced by every value drawn. */
+	private long state = 0;
+	
+	/**
+	 * Create a generator for a game.
+	 *
+	 * @author Erik Selstam
+	 * @param seed Seed of the game.
+	 */
+	RefillStream(final long seed) {
+		restart(seed);
+	}
+	
+	/**
+	 * Derive the seed of a child stream from a seed. The child number is
+	 * hashed on its own before it is mixed into the parent seed, so child
+	 * seeds are not outputs of the stream of the parent seed.
+	 *
+	 * @author Erik Selstam
+	 * @param seed  Parent seed.
+	 * @param child Number of the child stream.
+	 * @return Seed of the child stream.
+	 */
+	static long getChildSeed(final long seed, final int child) {
+		return mix(seed ^ mix((child + 1L) * CHILD_GAMMA));
+	}
+	
+	/**
+	 * Get the seed of the game.
+	 *
+	 * @author Erik Selstam
+	 * @return The seed.
+	 */
+	long getSeed() {
+		return seed;
+	}
+	
+	/**
+	 * Mix the bits of a value with the 64-bit finalizer of MurmurHash3.
+	 *
+	 * @author Erik Selstam
+	 * @param value Value to mix.
+	 * @return The mixed value.
+	 */
+	private static long mix(final long value) {
+		long z = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+		z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		return z ^ (z >>> 33);
+	}
+	
+	/**
+	 * Draw a value.
+	 *
+	 * @author Erik Selstam
+	 * @return A uniformly distributed `int`.
+	 */
+	@Override
+	public int nextInt() {
+		state += BitBoard.GOLDEN_GAMMA;
+		long z = state;
+		z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+		return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+	}
+	
+	/**
+	 * Draw a value.
+	 *
+	 * @author Erik Selstam
+	 * @return A uniformly distributed `long`.
+	 */
+	@Override
+	public long nextLong() {
+		state += BitBoard.GOLDEN_GAMMA;
+		long z = state;
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+	
+	/**
+	 * Start a new game, drawing from the stream of its seed.
+	 *
+	 * @author Erik Selstam
+	 * @param seed Seed of the game.
+	 */
+	void restart(final long seed) {
+		this.seed  = seed;
+		this.state = seed;
+	}
+	
+	/**
+	 * Draw from the child stream of a move.
+	 *
+	 * @author Erik Selstam
+	 * @param move Number of moves made before the move.
+	 */
+	void select(final int move) {
+		state = getChildSeed(seed, move);
+	}
+}
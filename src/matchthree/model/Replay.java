@@ -0,0 +1,402 @@
+package matchthree.model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Recording of a game, as its seed and the stream of moves made.
+ *
+ * <p>
+ * A model created with the dimensions and seed of a recording starts with
+ * the same board, and refills it the same way, so playing the recorded moves
+ * on it reproduces the game exactly. Besides moves, the stream holds undo
+ * and redo steps, which do not draw refills. The score and board hash at the
+ * end of the recording are kept to check the playback against.
+ * </p>
+ *
+ * <p>
+ * Events are packed into a single `long` each, holding the source and
+ * destination cell indices of a move, or a negative step code.
+ * </p>
+ *
+ * @author Erik Selstam
+ */
+public final class Replay
+{
+	/** Header of the text format. */
+	private static final String HEADER = "MatchThree Replay Version 3.0";
+	
+	/** Event of a redo step. */
+	static final long REDO = -2;
+	
+	/** Event of an undo step. */
+	static final long UNDO = -1;
+	
+	/** Packed events. */
+	private final long[] events;
+	
+	/** Board hash at the end of the recording. */
+	private final long hash;
+	
+	/** Number of rows. */
+	private final int height;
+	
+	/** Score at the end of the recording. */
+	private final int score;
+	
+	/** Seed of the game. */
+	private final long seed;
+	
+	/** Time of each event since the start of the game, in milliseconds. */
+	private final int[] times;
+	
+	/** Number of columns. */
+	private final int width;
+	
+	/**
+	 * Create a recording of a model.
+	 *
+	 * @author Erik Selstam
+	 * @param model  Model at the end of the recording.
+	 * @param events Packed events.
+	 * @param times  Time of each event, in milliseconds.
+	 * @param count  Number of events.
+	 */
+	Replay(
+		final MatchThreeModel model,
+		final long[]          events,
+		final int[]           times,
+		final int             count)
+	{
+		this(
+			model.getWidth(),
+			model.getHeight(),
+			model.getSeed(),
+			model.getScore(),
+			model.getHash(),
+			count
+		);
+		System.arraycopy(events, 0, this.events, 0, count);
+		System.arraycopy(times, 0, this.times, 0, count);
+	}
+	
+	/**
+	 * Create a recording without events.
+	 *
+	 * @author Erik Selstam
+	 * @param width  Number of columns.
+	 * @param height Number of rows.
+	 * @param seed   Seed of the game.
+	 * @param score  Score at the end of the recording.
+	 * @param hash   Board hash at the end of the recording.
+	 * @param count  Number of events to make room for.
+	 */
+	private Replay(
+		final int  width,
+		final int  height,
+		final long seed,
+		final int  score,
+		final long hash,
+		final int  count)
+	{
+		this.events = new long[count];
+		this.hash   = hash;
+		this.height = height;
+		this.score  = score;
+		this.seed   = seed;
+		this.times  = new int[count];
+		this.width  = width;
+	}
+	
+	/**
+	 * Play an event of the recording on a model.
+	 *
+	 * @author Erik Selstam
+	 * @param model Model to change, in the state the event was recorded in.
+	 * @param i     Index of the event.
+	 * @return Whether the event was a move that was made, and thus counts
+	 *         towards the moves of the game.
+	 */
+	public boolean apply(final MatchThreeModel model, final int i) {
+		long event = events[i];
+		if (event == UNDO) {
+			model.getJournal().undo();
+			return false;
+		}
+		if (event == REDO) {
+			model.getJournal().redo();
+			return false;
+		}
+		
+		int from = (int) (event >>> 32);
+		int to   = (int) event;
+		return model.move(
+			new Coordinate(from % width, from / width),
+			new Coordinate(to % width, to / width)
+		) == MatchThreeModel.MoveType.OK;
+	}
+	
+	/**
+	 * Create a model at the start of the recording.
+	 *
+	 * @author Erik Selstam
+	 * @return A new model without observers.
+	 */
+	public MatchThreeModel createModel() {
+		return new MatchThreeModel(width, height, seed);
+	}
+	
+	/**
+	 * Get the number of recorded events.
+	 *
+	 * @author Erik Selstam
+	 * @return The number of moves, undo steps and redo steps.
+	 */
+	public int getCount() {
+		return events.length;
+	}
+	
+	/**
+	 * Get the board hash at the end of the recording.
+	 *
+	 * @author Erik Selstam
+	 * @return The board hash.
+	 */
+	public long getHash() {
+		return hash;
+	}
+	
+	/**
+	 * Get the number of rows of the recorded game.
+	 *
+	 * @author Erik Selstam
+	 * @return The number of rows.
+	 */
+	public int getHeight() {
+		return height;
+	}
+	
+	/**
+	 * Get the score at the end of the recording.
+	 *
+	 * @author Erik Selstam
+	 * @return The score.
+	 */
+	public int getScore() {
+		return score;
+	}
+	
+	/**
+	 * Get the seed of the recorded game.
+	 *
+	 * @author Erik Selstam
+	 * @return The seed.
+	 */
+	public long getSeed() {
+		return seed;
+	}
+	
+	/**
+	 * Get the time of an event.
+	 *
+	 * @author Erik Selstam
+	 * @param i Index of the event.
+	 * @return Time since the start of the game, in milliseconds.
+	 */
+	public int getTime(final int i) {
+		return times[i];
+	}
+	
+	/**
+	 * Get the number of columns of the recorded game.
+	 *
+	 * @author Erik Selstam
+	 * @return The number of columns.
+	 */
+	public int getWidth() {
+		return width;
+	}
+	
+	/**
+	 * Check whether a model matches the end of the recording.
+	 *
+	 * @author Erik Selstam
+	 * @param model Model to check.
+	 * @return Whether the score and board hash match.
+	 */
+	public boolean matches(final MatchThreeModel model) {
+		return model.getScore() == score && model.getHash() == hash;
+	}
+	
+	/**
+	 * Parse the fields of an event line after its time.
+	 *
+	 * @author Erik Selstam
+	 * @param parts  Fields of the line.
+	 * @param width  Number of columns.
+	 * @param height Number of rows.
+	 * @return The packed event.
+	 * @throws IOException If the fields are malformed.
+	 */
+	private static long parseEvent(
+		final String[] parts,
+		final int      width,
+		final int      height)
+		throws IOException
+	{
+		// Parse steps //
+		if (parts.length == 2 && parts[1].equals("undo")) {
+			return UNDO;
+		}
+		if (parts.length == 2 && parts[1].equals("redo")) {
+			return REDO;
+		}
+		if (parts.length != 5) {
+			throw new IOException("Malformed replay event");
+		}
+		
+		// Parse move //
+		int[] values = new int[4];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = Integer.parseInt(parts[i + 1]);
+			int size = (i % 2 == 0) ? width : height;
+			if (values[i] < 0 || values[i] >= size) {
+				throw new IOException("Replay move out of bounds");
+			}
+		}
+		long from = values[1] * width + values[0];
+		long to   = values[3] * width + values[2];
+		return (from << 32) | to;
+	}
+	
+	/**
+	 * Play the whole recording at full speed, without observers. Moves are
+	 * made by cell index, without flight recorder events, and are only
+	 * journaled if the recording undoes moves, so playback allocates nothing
+	 * per move.
+	 *
+	 * @author Erik Selstam
+	 * @return The model at the end of the recording, which stays set up for
+	 *         playback and notifies no observers.
+	 */
+	public MatchThreeModel play() {
+		// Journal moves only if they are undone //
+		MatchThreeModel model   = createModel();
+		boolean         history = false;
+		for (int i = 0; i < events.length; i++) {
+			history |= events[i] < 0;
+		}
+		model.setPlayback(history);
+		
+		// Play events //
+		for (int i = 0; i < events.length; i++) {
+			long event = events[i];
+			if (event < 0) {
+				apply(model, i);
+			} else {
+				model.move((int) (event >>> 32), (int) event);
+			}
+		}
+		return model;
+	}
+	
+	/**
+	 * Read a recording in the format written by `write`.
+	 *
+	 * @author Erik Selstam
+	 * @param in Reader to read from.
+	 * @return The recording.
+	 * @throws IOException If reading fails or the data is malformed.
+	 */
+	public static Replay read(final BufferedReader in)
+		throws IOException
+	{
+		try {
+			// Read header //
+			if (!HEADER.equals(in.readLine())) {
+				throw new IOException("Not a replay");
+			}
+			int  width  = Integer.parseInt(readField(in, "width"));
+			int  height = Integer.parseInt(readField(in, "height"));
+			long seed   = Long.parseLong(readField(in, "seed"));
+			int  score  = Integer.parseInt(readField(in, "score"));
+			long hash   = Long.parseUnsignedLong(readField(in, "hash"), 16);
+			int  count  = Integer.parseInt(readField(in, "events"));
+			if (width <= 0 || height <= 0 || count < 0) {
+				throw new IOException("Malformed replay");
+			}
+			
+			// Read events //
+			Replay replay = new Replay(width, height, seed, score, hash, count);
+			for (int i = 0; i < count; i++) {
+				String line = in.readLine();
+				if (line == null) {
+					throw new IOException("Truncated replay");
+				}
+				String[] parts = line.split(" ");
+				replay.times[i]  = Integer.parseInt(parts[0]);
+				replay.events[i] = parseEvent(parts, width, height);
+			}
+			return replay;
+		} catch (final NumberFormatException exception) {
+			throw new IOException("Malformed replay", exception);
+		}
+	}
+	
+	/**
+	 * Read a line of the form "name: value".
+	 *
+	 * @author Erik Selstam
+	 * @param in   Reader to read from.
+	 * @param name Expected name.
+	 * @return The value.
+	 * @throws IOException If reading fails or the name does not match.
+	 */
+	private static String readField(final BufferedReader in, final String name)
+		throws IOException
+	{
+		String line = in.readLine();
+		if (line == null || !line.startsWith(name + ": ")) {
+			throw new IOException("Missing replay field \"" + name + "\"");
+		}
+		return line.substring(name.length() + 2);
+	}
+	
+	/**
+	 * Write the recording as text: a header, one field per line, and one line
+	 * per event with its time and either the coordinates of a move or the
+	 * name of a step.
+	 *
+	 * @author Erik Selstam
+	 * @param out Writer to write to.
+	 * @throws IOException If writing fails.
+	 */
+	public void write(final Writer out)
+		throws IOException
+	{
+		// Write fields //
+		out.write(HEADER + "\n");
+		out.write("width: " + width + "\n");
+		out.write("height: " + height + "\n");
+		out.write("seed: " + seed + "\n");
+		out.write("score: " + score + "\n");
+		out.write("hash: " + Long.toHexString(hash) + "\n");
+		out.write("events: " + events.length + "\n");
+		
+		// Write events //
+		for (int i = 0; i < events.length; i++) {
+			out.write(String.valueOf(times[i]));
+			if (events[i] == UNDO) {
+				out.write(" undo\n");
+			} else if (events[i] == REDO) {
+				out.write(" redo\n");
+			} else {
+				int from = (int) (events[i] >>> 32);
+				int to   = (int) events[i];
+				out.write(" " + from % width + " " + from / width);
+				out.write(" " + to % width + " " + to / width + "\n");
+			}
+		}
+	}
+}
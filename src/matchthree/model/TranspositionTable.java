@@ -0,0 +1,172 @@
+package matchthree.model;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded, lock-free table of evaluated board states, keyed by board hash.
+ *
+ * <p>
+ * Every slot holds two words: the entry, and the entry XOR the hash. Writers
+ * store both words without locking, and readers only accept an entry whose
+ * words match the hash, so an entry torn by concurrent writers is read as a
+ * miss instead of as a wrong result. Each state maps to a single slot, which
+ * is overwritten by entries for the same state, or for other states searched
+ * at least as deep.
+ * </p>
+ *
+ * <p>
+ * An entry packs a score as a float in the low 32 bits, a swap identifier in
+ * the next 25 bits, and the search depth plus one in the top 7 bits, so that
+ * an empty slot reads as 0.
+ * </p>
+ *
+ * @author Erik Selstam
+ */
+public final class TranspositionTable
+{
+	/** Entry returned for states not in the table. */
+	public static final long MISSING = 0;
+	
+	/** Largest storable search depth. */
+	public static final int MAXIMUM_DEPTH = (1 << 7) - 2;
+	
+	/** Largest storable swap identifier. */
+	public static final int MAXIMUM_MOVE = (1 << 25) - 1;
+	
+	/** Position of the depth bits. */
+	private static final int DEPTH_SHIFT = 57;
+	
+	/** Mask of the move bits, after shifting. */
+	private static final long MOVE_MASK = MAXIMUM_MOVE;
+	
+	/** Position of the move bits. */
+	private static final int MOVE_SHIFT = 32;
+	
+	/** Mask of the score bits. */
+	private static final long SCORE_MASK = 0xffffffffL;
+	
+	/** Slot index mask. */
+	private final int mask;
+	
+	/** Slots, two words each: entry XOR hash, and entry. */
+	private final AtomicLongArray slots;
+	
+	/**
+	 * Create an empty table.
+	 *
+	 * @author Erik Selstam
+	 * @param capacity Number of slots, rounded up to a power of two.
+	 */
+	public TranspositionTable(final int capacity) {
+		// Validate argument //
+		if (capacity <= 0 || capacity > (1 << 29)) {
+			throw new IllegalArgumentException();
+		}
+		
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity) {
+			size <<= 1;
+		}
+		mask  = size - 1;
+		slots = new AtomicLongArray(size * 2);
+	}
+	
+	/**
+	 * Remove all entries. Must not run concurrently with other calls.
+	 *
+	 * @author Erik Selstam
+	 */
+	public void clear() {
+		for (int i = 0; i < slots.length(); i++) {
+			slots.set(i, 0);
+		}
+	}
+	
+	/**
+	 * Look up a state.
+	 *
+	 * @author Erik Selstam
+	 * @param hash Board hash of the state.
+	 * @return The entry of the state, or `MISSING`.
+	 */
+	public long get(final long hash) {
+		int  slot  = ((int) hash & mask) * 2;
+		long entry = slots.get(slot + 1);
+		return ((slots.get(slot) ^ entry) == hash) ? entry : MISSING;
+	}
+	
+	/**
+	 * Get the search depth of an entry.
+	 *
+	 * @author Erik Selstam
+	 * @param entry Entry, as returned by `get`.
+	 * @return The search depth.
+	 */
+	public static int getDepth(final long entry) {
+		return (int) (entry >>> DEPTH_SHIFT) - 1;
+	}
+	
+	/**
+	 * Get the best move of an entry.
+	 *
+	 * @author Erik Selstam
+	 * @param entry Entry, as returned by `get`.
+	 * @return The swap identifier.
+	 */
+	public static int getMove(final long entry) {
+		return (int) ((entry >>> MOVE_SHIFT) & MOVE_MASK);
+	}
+	
+	/**
+	 * Get the score of an entry.
+	 *
+	 * @author Erik Selstam
+	 * @param entry Entry, as returned by `get`.
+	 * @return The score.
+	 */
+	public static float getScore(final long entry) {
+		return Float.intBitsToFloat((int) (entry & SCORE_MASK));
+	}
+	
+	/**
+	 * Store the evaluation of a state. Entries for other states searched
+	 * deeper are kept.
+	 *
+	 * @author Erik Selstam
+	 * @param hash  Board hash of the state.
+	 * @param score Score of the state.
+	 * @param move  Swap identifier of the best move.
+	 * @param depth Search depth of the evaluation.
+	 */
+	public void put(
+		final long  hash,
+		final float score,
+		final int   move,
+		final int   depth)
+	{
+		// Validate arguments //
+		if (move < 0 || move > MAXIMUM_MOVE) {
+			throw new IllegalArgumentException();
+		}
+		if (depth < 0 || depth > MAXIMUM_DEPTH) {
+			throw new IllegalArgumentException();
+		}
+		
+		// Keep deeper entries of other states //
+		int  slot = ((int) hash & mask) * 2;
+		long old  = slots.get(slot + 1);
+		if (old != MISSING
+			&& (slots.get(slot) ^ old) != hash
+			&& getDepth(old) > depth)
+		{
+			return;
+		}
+		
+		// Store entry //
+		long entry = ((long) (depth + 1) << DEPTH_SHIFT)
+			| ((long) move << MOVE_SHIFT)
+			| (Float.floatToIntBits(score) & SCORE_MASK);
+		slots.set(slot, entry ^ hash);
+		slots.set(slot + 1, entry);
+	}
+}
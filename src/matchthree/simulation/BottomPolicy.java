@@ -0,0 +1,30 @@
+package matchthree.simulation;
+
+import java.util.SplittableRandom;
+import matchthree.model.MatchThreeModel;
+
+/**
+ * Move policy picking the lowest legal swap on the board. Moves near the
+ * bottom shift the most cells, and so tend to give the longest cascades.
+ *
+ * @author Erik Selstam
+ */
+public final class BottomPolicy
+	implements MovePolicy
+{
+	/**
+	 * Constructor.
+	 *
+	 * @author Erik Selstam
+	 */
+	public BottomPolicy() { }
+	
+	@Override
+	public int choose(
+		final MatchThreeModel  model,
+		final SplittableRandom random)
+	{
+		// Swaps are ordered by the index of their top or left cell //
+		return model.getMove(model.getMoveCount() - 1);
+	}
+}
@@ -0,0 +1,23 @@
+package matchthree.simulation;
+
+import java.util.SplittableRandom;
+import matchthree.model.MatchThreeModel;
+
+/**
+ * Strategy for picking moves in simulated games. Policies are shared between
+ * all games of a simulation, and so must be stateless or thread-safe.
+ *
+ * @author Erik Selstam
+ */
+public interface MovePolicy
+{
+	/**
+	 * Choose a move.
+	 *
+	 * @author Erik Selstam
+	 * @param model  Game to move in. Has at least one legal swap.
+	 * @param random PRNG context of the game.
+	 * @return Identifier of a legal swap, as returned by `getMove`.
+	 */
+	int choose(MatchThreeModel model, SplittableRandom random);
+}
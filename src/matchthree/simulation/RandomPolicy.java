@@ -0,0 +1,28 @@
+package matchthree.simulation;
+
+import java.util.SplittableRandom;
+import matchthree.model.MatchThreeModel;
+
+/**
+ * Move policy picking a legal swap uniformly at random.
+ *
+ * @author Erik Selstam
+ */
+public final class RandomPolicy
+	implements MovePolicy
+{
+	/**
+	 * Constructor.
+	 *
+	 * @author Erik Selstam
+	 */
+	public RandomPolicy() { }
+	
+	@Override
+	public int choose(
+		final MatchThreeModel  model,
+		final SplittableRandom random)
+	{
+		return model.getMove(random.nextInt(model.getMoveCount()));
+	}
+}
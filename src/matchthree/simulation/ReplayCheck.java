@@ -0,0 +1,84 @@
+package matchthree.simulation;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import matchthree.model.MatchThreeModel;
+import matchthree.model.Replay;
+
+/**
+ * Headless replay checker. Plays a corpus of recorded games at full speed and
+ * reports every game whose final score or board differs from the recording,
+ * for regression testing changes to the game rules.
+ *
+ * @author Erik Selstam
+ */
+public final class ReplayCheck
+{
+	/** Exit code - Some replays did not match. */
+	private static final int EXIT_MISMATCH = 1;
+	
+	/**
+	 * Forbidden constructor.
+	 *
+	 * @author Erik Selstam
+	 */
+	private ReplayCheck() {
+		throw new UnsupportedOperationException();
+	}
+	
+	/**
+	 * Program entry point. Arguments are the paths of the replay files to
+	 * check.
+	 *
+	 * @author Erik Selstam
+	 * @param args Program arguments.
+	 * @throws IOException If a replay cannot be read.
+	 */
+	public static void main(final String[] args)
+		throws IOException
+	{
+		// Check replays //
+		int  failed = 0;
+		long events = 0;
+		long time   = 0;
+		for (final String path : args) {
+			// Read replay //
+			Replay replay = null;
+			try (BufferedReader in = new BufferedReader(new FileReader(path))) {
+				replay = Replay.read(in);
+			}
+			
+			// Play replay //
+			long            start = System.nanoTime();
+			MatchThreeModel model = replay.play();
+			time   += System.nanoTime() - start;
+			events += replay.getCount();
+			
+			// Report mismatch //
+			if (!replay.matches(model)) {
+				failed++;
+				System.out.printf(
+					"%s: score %d, expected %d; hash %x, expected %x%n",
+					path,
+					model.getScore(),
+					replay.getScore(),
+					model.getHash(),
+					replay.getHash()
+				);
+			}
+		}
+		
+		// Print report //
+		System.out.printf(
+			"%d of %d replays match, %d events, %.0f events/s%n",
+			args.length - failed,
+			args.length,
+			events,
+			(time > 0) ? events * 1e9 / time : 0
+		);
+		if (failed > 0) {
+			System.exit(EXIT_MISMATCH);
+		}
+	}
+}
@@ -0,0 +1,249 @@
+package matchthree.simulation;
+
+/**
+ * Aggregate statistics of a set of simulated games. Each worker collects its
+ * own result, and results are merged once the workers are done, so a result
+ * is never shared between threads while it is being filled in.
+ *
+ * @author Erik Selstam
+ */
+public final class SimulationResult
+{
+	/** Number of cascade depths with their own histogram bucket. */
+	private static final int DEPTH_BUCKETS = 16;
+	
+	/**
+	 * Number of moves per cascade depth. The last bucket also counts all
+	 * deeper cascades.
+	 */
+	private final long[] depths = new long[DEPTH_BUCKETS + 1];
+	
+	/** Number of games that ran out of legal moves at least once. */
+	private long deadlocks = 0;
+	
+	/** Sum of the moves played before the first deadlock of each game. */
+	private long deadlockMoves = 0;
+	
+	/** Number of games. */
+	private long games = 0;
+	
+	/** Deepest cascade. */
+	private int maximumDepth = 0;
+	
+	/** Highest game score. */
+	private int maximumScore = Integer.MIN_VALUE;
+	
+	/** Lowest game score. */
+	private int minimumScore = Integer.MAX_VALUE;
+	
+	/** Number of moves. */
+	private long moves = 0;
+	
+	/** Sum of the cascade steps of all moves. */
+	private long steps = 0;
+	
+	/** Sum of all game scores. */
+	private long totalScore = 0;
+	
+	/**
+	 * Create an empty result.
+	 *
+	 * @author Erik Selstam
+	 */
+	public SimulationResult() { }
+	
+	/**
+	 * Record a finished game.
+	 *
+	 * @author Erik Selstam
+	 * @param score         Final score of the game.
+	 * @param firstDeadlock Number of moves played before the board first ran
+	 *                      out of legal moves, or -1 if it never did.
+	 */
+	void addGame(final int score, final int firstDeadlock) {
+		games++;
+		totalScore  += score;
+		minimumScore = Math.min(minimumScore, score);
+		maximumScore = Math.max(maximumScore, score);
+		if (firstDeadlock >= 0) {
+			deadlocks++;
+			deadlockMoves += firstDeadlock;
+		}
+	}
+	
+	/**
+	 * Record a move.
+	 *
+	 * @author Erik Selstam
+	 * @param depth Number of cascade steps of the move.
+	 */
+	void addMove(final int depth) {
+		moves++;
+		steps += depth;
+		maximumDepth = Math.max(maximumDepth, depth);
+		depths[Math.min(depth, DEPTH_BUCKETS)]++;
+	}
+	
+	/**
+	 * Get the number of games that ran out of legal moves at least once.
+	 *
+	 * @author Erik Selstam
+	 * @return The number of deadlocked games.
+	 */
+	public long getDeadlocks() {
+		return deadlocks;
+	}
+	
+	/**
+	 * Get the number of moves with a cascade depth.
+	 *
+	 * @author Erik Selstam
+	 * @param depth Number of cascade steps. The last bucket also counts all
+	 *              deeper cascades.
+	 * @return The number of moves.
+	 */
+	public long getDepthCount(final int depth) {
+		return depths[Math.min(depth, DEPTH_BUCKETS)];
+	}
+	
+	/**
+	 * Get the number of games.
+	 *
+	 * @author Erik Selstam
+	 * @return The number of games.
+	 */
+	public long getGames() {
+		return games;
+	}
+	
+	/**
+	 * Get the deepest cascade.
+	 *
+	 * @author Erik Selstam
+	 * @return The highest number of cascade steps of a single move.
+	 */
+	public int getMaximumDepth() {
+		return maximumDepth;
+	}
+	
+	/**
+	 * Get the highest game score.
+	 *
+	 * @author Erik Selstam
+	 * @return The highest score, or 0 if there were no games.
+	 */
+	public int getMaximumScore() {
+		return (games > 0) ? maximumScore : 0;
+	}
+	
+	/**
+	 * Get the mean cascade depth.
+	 *
+	 * @author Erik Selstam
+	 * @return The mean number of cascade steps per move.
+	 */
+	public double getMeanDepth() {
+		return (moves > 0) ? (double) steps / moves : 0;
+	}
+	
+	/**
+	 * Get the mean number of moves before the first deadlock, over the games
+	 * that deadlocked.
+	 *
+	 * @author Erik Selstam
+	 * @return The mean number of moves.
+	 */
+	public double getMeanMovesToDeadlock() {
+		return (deadlocks > 0) ? (double) deadlockMoves / deadlocks : 0;
+	}
+	
+	/**
+	 * Get the mean game score.
+	 *
+	 * @author Erik Selstam
+	 * @return The mean score.
+	 */
+	public double getMeanScore() {
+		return (games > 0) ? (double) totalScore / games : 0;
+	}
+	
+	/**
+	 * Get the lowest game score.
+	 *
+	 * @author Erik Selstam
+	 * @return The lowest score, or 0 if there were no games.
+	 */
+	public int getMinimumScore() {
+		return (games > 0) ? minimumScore : 0;
+	}
+	
+	/**
+	 * Get the number of moves.
+	 *
+	 * @author Erik Selstam
+	 * @return The number of moves.
+	 */
+	public long getMoves() {
+		return moves;
+	}
+	
+	/**
+	 * Add the statistics of another result to this one.
+	 *
+	 * @author Erik Selstam
+	 * @param other Result to add.
+	 */
+	void merge(final SimulationResult other) {
+		for (int depth = 0; depth < depths.length; depth++) {
+			depths[depth] += other.depths[depth];
+		}
+		deadlocks     += other.deadlocks;
+		deadlockMoves += other.deadlockMoves;
+		games         += other.games;
+		maximumDepth   = Math.max(maximumDepth, other.maximumDepth);
+		maximumScore   = Math.max(maximumScore, other.maximumScore);
+		minimumScore   = Math.min(minimumScore, other.minimumScore);
+		moves         += other.moves;
+		steps         += other.steps;
+		totalScore    += other.totalScore;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder out = new StringBuilder();
+		String        eol = System.lineSeparator();
+		
+		// Summary //
+		out.append(String.format(
+			"games: %d, moves: %d%n", games, moves
+		));
+		out.append(String.format(
+			"score: mean %.1f, min %d, max %d%n",
+			getMeanScore(), getMinimumScore(), getMaximumScore()
+		));
+		out.append(String.format(
+			"cascade depth: mean %.3f, max %d%n",
+			getMeanDepth(), maximumDepth
+		));
+		out.append(String.format(
+			"deadlocks: %d games, mean %.1f moves to first deadlock%n",
+			deadlocks, getMeanMovesToDeadlock()
+		));
+		
+		// Cascade depth histogram //
+		out.append("depth histogram:").append(eol);
+		for (int depth = 0; depth < depths.length; depth++) {
+			if (depths[depth] == 0) {
+				continue;
+			}
+			String label = (depth < DEPTH_BUCKETS)
+				? String.valueOf(depth)
+				: depth + "+";
+			out.append(String.format(
+				"  %4s: %d%n", label, depths[depth]
+			));
+		}
+		
+		return out.toString();
+	}
+}
@@ -0,0 +1,261 @@
+package matchthree.simulation;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import matchthree.model.MatchThreeModel;
+
+/**
+ * Headless game simulator. Plays a number of games with a move policy on a
+ * `ForkJoinPool`, without any observers attached, and aggregates their
+ * statistics.
+ *
+ * <p>
+ * Every game is seeded from the simulation seed and its own number, so the
+ * result of a simulation does not depend on the number of threads or on how
+ * the games are scheduled.
+ * </p>
+ *
+ * @author Erik Selstam
+ */
+public final class Simulator
+{
+	/** Number of games below which a task is not split further. */
+	private static final int BATCH_SIZE = 16;
+	
+	/** Number of games to play. */
+	private final int games;
+	
+	/** Number of rows per board. */
+	private final int height;
+	
+	/** Number of moves per game. */
+	private final int moves;
+	
+	/** Move policy. */
+	private final MovePolicy policy;
+	
+	/** Simulation seed. */
+	private final long seed;
+	
+	/** Number of columns per board. */
+	private final int width;
+	
+	/**
+	 * Games to play in one task.
+	 *
+	 * @author Erik Selstam
+	 */
+	@SuppressWarnings("serial")
+	private final class Batch
+		extends RecursiveTask<SimulationResult>
+	{
+		/** Number of the first game. */
+		private final int from;
+		
+		/** Number of the last game plus one. */
+		private final int to;
+		
+		/**
+		 * Constructor.
+		 *
+		 * @author Erik Selstam
+		 * @param from Number of the first game.
+		 * @param to   Number of the last game plus one.
+		 */
+		Batch(final int from, final int to) {
+			this.from = from;
+			this.to   = to;
+		}
+		
+		@Override
+		protected SimulationResult compute() {
+			// Play small batches directly //
+			if (to - from <= BATCH_SIZE) {
+				SimulationResult result = new SimulationResult();
+				for (int game = from; game < to; game++) {
+					play(game, result);
+				}
+				return result;
+			}
+			
+			// Split larger batches in half //
+			int   middle = (from + to) >>> 1;
+			Batch left   = new Batch(from, middle);
+			Batch right  = new Batch(middle, to);
+			left.fork();
+			SimulationResult result = right.compute();
+			result.merge(left.join());
+			return result;
+		}
+	}
+	
+	/**
+	 * Constructor.
+	 *
+	 * @author Erik Selstam
+	 * @param width  Number of columns per board.
+	 * @param height Number of rows per board.
+	 * @param games  Number of games to play.
+	 * @param moves  Number of moves per game.
+	 * @param policy Move policy. Shared between all games.
+	 * @param seed   Simulation seed.
+	 */
+	public Simulator(
+		final int        width,
+		final int        height,
+		final int        games,
+		final int        moves,
+		final MovePolicy policy,
+		final long       seed)
+	{
+		// Validate arguments //
+		if (policy == null) {
+			throw new NullPointerException();
+		}
+		if (width <= 0 || height <= 0 || games < 0 || moves < 0) {
+			throw new IllegalArgumentException();
+		}
+		
+		// Assign fields //
+		this.games  = games;
+		this.height = height;
+		this.moves  = moves;
+		this.policy = policy;
+		this.seed   = seed;
+		this.width  = width;
+	}
+	
+	/**
+	 * Program entry point for simulation runs. Arguments are given as
+	 * `key=value` pairs, with the keys `games`, `moves`, `width`, `height`,
+	 * `policy` (`random` or `bottom`), `seed` and `threads`.
+	 *
+	 * @author Erik Selstam
+	 * @param args Program arguments.
+	 */
+	public static void main(final String[] args) {
+		// Set defaults //
+		int        games   = 10000;
+		int        moves   = 20;
+		int        width   = 6;
+		int        height  = 6;
+		MovePolicy policy  = new RandomPolicy();
+		long       seed    = new SplittableRandom().nextLong();
+		int        threads = Runtime.getRuntime().availableProcessors();
+		
+		// Parse arguments //
+		for (final String arg : args) {
+			int    split = arg.indexOf('=');
+			String key   = (split >= 0) ? arg.substring(0, split) : arg;
+			String value = (split >= 0) ? arg.substring(split + 1) : "";
+			switch (key) {
+				case "games":   games   = Integer.parseInt(value); break;
+				case "moves":   moves   = Integer.parseInt(value); break;
+				case "width":   width   = Integer.parseInt(value); break;
+				case "height":  height  = Integer.parseInt(value); break;
+				case "policy":  policy  = parsePolicy(value);      break;
+				case "seed":    seed    = Long.parseLong(value);   break;
+				case "threads": threads = Integer.parseInt(value); break;
+				default:
+					throw new IllegalArgumentException(
+						"Unknown argument: \"" + arg + "\""
+					);
+			}
+		}
+		
+		// Run simulation //
+		System.out.printf(
+			"Simulating %d games of %d moves on %dx%d boards, "
+				+ "%d threads, seed %d...%n",
+			games, moves, width, height, threads, seed
+		);
+		ForkJoinPool pool      = new ForkJoinPool(threads);
+		Simulator    simulator =
+			new Simulator(width, height, games, moves, policy, seed);
+		long             start  = System.nanoTime();
+		SimulationResult result = simulator.run(pool);
+		long             time   = System.nanoTime() - start;
+		pool.shutdown();
+		
+		// Print report //
+		System.out.print(result);
+		System.out.printf(
+			"time: %.3f s, %.0f games/s%n",
+			time / 1e9,
+			games / (time / 1e9)
+		);
+	}
+	
+	/**
+	 * Get a move policy by name.
+	 *
+	 * @author Erik Selstam
+	 * @param name Policy name.
+	 * @return The policy.
+	 */
+	private static MovePolicy parsePolicy(final String name) {
+		switch (name) {
+			case "bottom": return new BottomPolicy();
+			case "random": return new RandomPolicy();
+			default:
+				throw new IllegalArgumentException(
+					"Unknown policy: \"" + name + "\""
+				);
+		}
+	}
+	
+	/**
+	 * Play a game. The move counter of the model is never used, so that
+	 * simulated games are not submitted to the high score table.
+	 *
+	 * @author Erik Selstam
+	 * @param game   Number of the game.
+	 * @param result Result to add the game to.
+	 */
+	private void play(final int game, final SimulationResult result) {
+		// Set up game //
+		// NOTE: The policy draws from the first child stream of the game seed
+		//       not used for the refills of a move.
+		long             gameSeed = MatchThreeModel.getChildSeed(seed, game);
+		MatchThreeModel  model    =
+			new MatchThreeModel(width, height, gameSeed);
+		SplittableRandom random   = new SplittableRandom(
+			MatchThreeModel.getChildSeed(gameSeed, moves)
+		);
+		
+		// Play moves //
+		// NOTE: Boards reshuffled before the first move are not deadlocks.
+		int dealt         = model.getShuffleCount();
+		int firstDeadlock = -1;
+		for (int move = 0; move < moves; move++) {
+			// Make move //
+			int swap = policy.choose(model, random);
+			model.move(model.getSwapSource(swap), model.getSwapTarget(swap));
+			result.addMove(model.getCascadeDepth());
+			
+			// Note first deadlock //
+			if (firstDeadlock < 0 && model.getShuffleCount() > dealt) {
+				firstDeadlock = move + 1;
+			}
+		}
+		
+		result.addGame(model.getScore(), firstDeadlock);
+	}
+	
+	/**
+	 * Run the simulation.
+	 *
+	 * @author Erik Selstam
+	 * @param pool Pool to play the games on.
+	 * @return Aggregate statistics of all games.
+	 */
+	public SimulationResult run(final ForkJoinPool pool) {
+		// Validate argument //
+		if (pool == null) {
+			throw new NullPointerException();
+		}
+		
+		return pool.invoke(new Batch(0, games));
+	}
+}
@@ -0,0 +1,39 @@
+package matchthree.view;
+
+import java.awt.event.ActionListener;
+import matchthree.model.Coordinate;
+import matchthree.model.Settings.Style;
+
+/**
+ * Common features of views that show a game board.
+ *
+ * @author Erik Selstam
+ */
+public interface BoardRenderer
+{
+	/**
+	 * Add listener for board cell actions (clicks). The source of each event
+	 * is either a `Cell`, or the event is a `CellAction`.
+	 *
+	 * @author Erik Selstam
+	 * @param listener Event handler.
+	 */
+	void addBoardListener(ActionListener listener);
+	
+	/**
+	 * Set cell activation state.
+	 *
+	 * @author Erik Selstam
+	 * @param position  Coordinates of the cell.
+	 * @param activated Whether cell is active.
+	 */
+	void setCellState(Coordinate position, boolean activated);
+	
+	/**
+	 * Set theme and update accordingly.
+	 *
+	 * @author Erik Selstam
+	 * @param style Visual style.
+	 */
+	void setStyle(Style style);
+}
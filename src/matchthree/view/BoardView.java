@@ -0,0 +1,639 @@
+package matchthree.view;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.event.ActionListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GridLayout;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.util.Observable;
+import java.util.Observer;
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+import matchthree.message.BoardDelta;
+import matchthree.message.CellEvent;
+import matchthree.message.ColumnEvent;
+import matchthree.message.GameFinishedEvent;
+import matchthree.message.LabelEvent;
+import matchthree.model.Coordinate;
+import matchthree.model.Jewel;
+import matchthree.model.MatchThreeModel;
+import matchthree.model.Settings.Style;
+
+/**
+ * MatchThree board view, painted as a single component.
+ *
+ * <p>
+ * Unlike `GridView`, which lays out one button per cell, this view paints
+ * the whole board itself and maps mouse positions to cells. When the model
+ * changes, only the cells whose jewels changed are repainted, and painting
+ * only visits the cells within the clip, so a move on a large board costs a
+ * few small repaints rather than a layout of thousands of components. Clicks
+ * are delivered to board listeners as `CellAction` events.
+ * </p>
+ *
+ * <p>
+ * Model changes may be notified from any thread, and are shown once per
+ * frame on the event dispatch thread.
+ * </p>
+ *
+ * <p>
+ * Jewels are blitted from a `SpriteAtlas` holding every sprite of the style,
+ * which is kept on the graphics card where the Java2D pipeline allows it.
+ * </p>
+ *
+ * <p>
+ * The view is used in place of `GridView` when Java is started with
+ * `-Dmatchthree.renderer=board`.
+ * </p>
+ *
+ * @author Erik Selstam
+ */
+@SuppressWarnings({"deprecation", "serial"})
+public class BoardView
+	extends JComponent
+	implements BoardRenderer, Observer
+{
+	/** Whether boards are shown with this view rather than `GridView`. */
+	public static final boolean ENABLED =
+		"board".equals(System.getProperty("matchthree.renderer"));
+	
+	/** Active cell mask color. */
+	private static final Color COLOR_ACTIVE_CELL =
+		new Color(0xFF, 0x00, 0x00, 0x4D);
+	
+	/** Hovered cell mask color. */
+	private static final Color COLOR_HOVER_CELL =
+		new Color(0x22, 0x22, 0x22, 0x80);
+	
+	/** Cell font. */
+	private static final Font FONT_CELL =
+		new Font("Helvetica Neue", Font.PLAIN, 14);
+	
+	/** Grid cell gap in logical pixels. */
+	private static final int GRID_GAP = 2;
+	
+	/** Icon width. */
+	private static final int ICON_SIZE = 80;
+	
+	/** Index of the active cell, or -1 if none. */
+	private int active = -1;
+	
+	/** Mask drawn over the active cell. */
+	private BufferedImage activeMask = null;
+	
+	/** Jewel sprites of the current style, or null to show jewels as text. */
+	private SpriteAtlas atlas = null;
+	
+	/** Height of a cell, as of the last measurement. */
+	private int cellHeight = 0;
+	
+	/** Jewels shown, in row-major order. */
+	private final Jewel[] cells;
+	
+	/** Width of a cell, as of the last measurement. */
+	private int cellWidth = 0;
+	
+	/** Number of columns. */
+	private final int columns;
+	
+	/** Index of the hovered cell, or -1 if none. */
+	private int hover = -1;
+	
+	/** Mask drawn over the hovered cell. */
+	private BufferedImage hoverMask = null;
+	
+	/** Left edge of the first column, as of the last measurement. */
+	private int left = 0;
+	
+	/** Index of the cell the mouse was pressed on, or -1 if none. */
+	private int pressed = -1;
+	
+	/** Number of rows. */
+	private final int rows;
+	
+	/** Top edge of the first row, as of the last measurement. */
+	private int top = 0;
+	
+	/** Cell updates not yet shown. */
+	private final CellUpdateQueue updates;
+	
+	/**
+	 * Constructor.
+	 *
+	 * @author Erik Selstam
+	 * @param model MatchThree model to use.
+	 * @param style Visual style to use.
+	 */
+	public BoardView(final MatchThreeModel model, final Style style) {
+		// Validate argument //
+		if (model == null) {
+			throw new NullPointerException();
+		}
+		
+		// Assign fields //
+		this.columns = model.getWidth();
+		this.rows    = model.getHeight();
+		
+		// Bind to model //
+		cells   = new Jewel[columns * rows];
+		updates = new CellUpdateQueue(cells.length, this::showCell);
+		model.addObserver(this);
+		
+		// Copy board //
+		for (int i = 0; i < cells.length; i++) {
+			cells[i] = model.get(i % columns, i / columns);
+		}
+		
+		// Load external resources //
+		setStyle(style);
+		
+		// Set properties //
+		setLayout(new GridLayout());
+		setPreferredSize(new Dimension(
+			columns * (ICON_SIZE + GRID_GAP) - GRID_GAP,
+			rows * (ICON_SIZE + GRID_GAP) - GRID_GAP
+		));
+		
+		// Add event listeners //
+		MouseAdapter mouse = new MouseAdapter() {
+			@Override
+			public void mouseDragged(final MouseEvent event) {
+				setHover(getCellAt(event.getX(), event.getY()));
+			}
+			
+			@Override
+			public void mouseExited(final MouseEvent event) {
+				setHover(-1);
+			}
+			
+			@Override
+			public void mouseMoved(final MouseEvent event) {
+				setHover(getCellAt(event.getX(), event.getY()));
+			}
+			
+			@Override
+			public void mousePressed(final MouseEvent event) {
+				if (SwingUtilities.isLeftMouseButton(event)) {
+					pressed = getCellAt(event.getX(), event.getY());
+				}
+			}
+			
+			@Override
+			public void mouseReleased(final MouseEvent event) {
+				if (!SwingUtilities.isLeftMouseButton(event)) {
+					return;
+				}
+				int cell = getCellAt(event.getX(), event.getY());
+				if (cell >= 0 && cell == pressed) {
+					fireAction(cell);
+				}
+				pressed = -1;
+			}
+		};
+		addMouseListener(mouse);
+		addMouseMotionListener(mouse);
+	}
+	
+	@Override
+	public void addBoardListener(final ActionListener listener) {
+		// Validate argument //
+		if (listener == null) {
+			throw new NullPointerException();
+		}
+		
+		listenerList.add(ActionListener.class, listener);
+	}
+	
+	/**
+	 * Create a mask image filled with a color, of the size of a cell.
+	 *
+	 * @author Erik Selstam
+	 * @param color Mask color.
+	 * @return The mask image.
+	 */
+	private BufferedImage createMask(final Color color) {
+		// Create image //
+		GraphicsConfiguration config = getGraphicsConfiguration();
+		BufferedImage mask;
+		if (config != null) {
+			mask = config.createCompatibleImage(
+				cellWidth,
+				cellHeight,
+				Transparency.TRANSLUCENT
+			);
+		} else {
+			mask = new BufferedImage(
+				cellWidth,
+				cellHeight,
+				BufferedImage.TYPE_INT_ARGB_PRE
+			);
+		}
+		
+		// Fill image //
+		Graphics2D graphics = mask.createGraphics();
+		graphics.setColor(color);
+		graphics.fillRect(0, 0, cellWidth, cellHeight);
+		graphics.dispose();
+		return mask;
+	}
+	
+	/**
+	 * Notify board listeners of a click on a cell.
+	 *
+	 * @author Erik Selstam
+	 * @param cell Index of the cell.
+	 */
+	private void fireAction(final int cell) {
+		// Skip finished game //
+		if (getComponentCount() > 0) {
+			return;
+		}
+		
+		Coordinate position = new Coordinate(cell % columns, cell / columns);
+		CellAction action   = new CellAction(this, position);
+		for (final ActionListener listener
+			: listenerList.getListeners(ActionListener.class))
+		{
+			listener.actionPerformed(action);
+		}
+	}
+	
+	/**
+	 * Get the cell at a point.
+	 *
+	 * @author Erik Selstam
+	 * @param x X-coordinate of the point, relative to the view.
+	 * @param y Y-coordinate of the point, relative to the view.
+	 * @return Index of the cell, or -1 if the point is outside all cells.
+	 */
+	private int getCellAt(final int x, final int y) {
+		// Skip empty view //
+		measure();
+		if (cellWidth <= 0 || cellHeight <= 0) {
+			return -1;
+		}
+		
+		// Find column and row //
+		int column = Math.floorDiv(x - left, cellWidth + GRID_GAP);
+		int row    = Math.floorDiv(y - top, cellHeight + GRID_GAP);
+		if (column < 0 || column >= columns || row < 0 || row >= rows) {
+			return -1;
+		}
+		
+		// Skip gaps //
+		if (x - left - column * (cellWidth + GRID_GAP) >= cellWidth
+			|| y - top - row * (cellHeight + GRID_GAP) >= cellHeight)
+		{
+			return -1;
+		}
+		
+		return row * columns + column;
+	}
+	
+	/**
+	 * Get the index of a cell, checking its coordinates.
+	 *
+	 * @author Erik Selstam
+	 * @param x X-coordinate of the cell.
+	 * @param y Y-coordinate of the cell.
+	 * @return Index of the cell.
+	 */
+	private int getIndex(final int x, final int y) {
+		if (x < 0) {
+			throw new IllegalArgumentException("`x` must be at least 0");
+		}
+		if (y < 0) {
+			throw new IllegalArgumentException("`y` must be at least 0");
+		}
+		if (x >= columns) {
+			throw new IndexOutOfBoundsException("`x` out-of-bounds");
+		}
+		if (y >= rows) {
+			throw new IndexOutOfBoundsException("`y` out-of-bounds");
+		}
+		return y * columns + x;
+	}
+	
+	/**
+	 * Measure cells for the current size of the view. Cells are laid out the
+	 * way `GridLayout` lays out the buttons of `GridView`: all of one size,
+	 * with any spare pixels split evenly around the board.
+	 *
+	 * @author Erik Selstam
+	 */
+	private void measure() {
+		// Size cells //
+		int width     = getWidth() - GRID_GAP * (columns - 1);
+		int height    = getHeight() - GRID_GAP * (rows - 1);
+		int oldWidth  = cellWidth;
+		int oldHeight = cellHeight;
+		cellWidth     = Math.max(width / columns, 0);
+		cellHeight    = Math.max(height / rows, 0);
+		left          = (width - cellWidth * columns) / 2;
+		top           = (height - cellHeight * rows) / 2;
+		
+		// Drop masks of another size //
+		if (cellWidth != oldWidth || cellHeight != oldHeight) {
+			activeMask = null;
+			hoverMask  = null;
+		}
+	}
+	
+	/**
+	 * Paint a cell.
+	 *
+	 * @author Erik Selstam
+	 * @param g       Graphics context.
+	 * @param sprites Image of the sprite atlas to draw from, or null if none.
+	 * @param cell    Index of the cell.
+	 * @param x       Left edge of the cell, relative to the view.
+	 * @param y       Top edge of the cell, relative to the view.
+	 */
+	private void paintCell(
+		final Graphics g,
+		final Image    sprites,
+		final int      cell,
+		final int      x,
+		final int      y)
+	{
+		// Paint jewel //
+		Jewel jewel = cells[cell];
+		if (jewel != null) {
+			if (sprites != null && atlas.contains(jewel)) {
+				paintSprite(g, sprites, jewel, x, y);
+			} else {
+				String      text    = jewel.toString();
+				FontMetrics metrics = g.getFontMetrics();
+				g.setColor(GridView.getColor(jewel));
+				g.drawString(
+					text,
+					x + (cellWidth - metrics.stringWidth(text)) / 2,
+					y + (cellHeight - metrics.getHeight()) / 2
+						+ metrics.getAscent()
+				);
+			}
+		}
+		
+		// Paint mask //
+		if (cell == active) {
+			if (activeMask == null) {
+				activeMask = createMask(COLOR_ACTIVE_CELL);
+			}
+			g.drawImage(activeMask, x, y, null);
+		} else if (cell == hover) {
+			if (hoverMask == null) {
+				hoverMask = createMask(COLOR_HOVER_CELL);
+			}
+			g.drawImage(hoverMask, x, y, null);
+		}
+	}
+	
+	/**
+	 * Paint the cells within the clip.
+	 *
+	 * @author Erik Selstam
+	 * @param g Graphics context.
+	 */
+	@Override
+	protected void paintComponent(final Graphics g) {
+		super.paintComponent(g);
+		
+		// Skip finished game and empty view //
+		measure();
+		if (getComponentCount() > 0 || cellWidth <= 0 || cellHeight <= 0) {
+			return;
+		}
+		
+		// Find cells within clip //
+		Rectangle clip   = g.getClipBounds();
+		int       pitchX = cellWidth + GRID_GAP;
+		int       pitchY = cellHeight + GRID_GAP;
+		int       first  = 0;
+		int       last   = columns - 1;
+		int       upper  = 0;
+		int       lower  = rows - 1;
+		if (clip != null) {
+			first = Math.max(Math.floorDiv(clip.x - left, pitchX), first);
+			last  = Math.min(
+				Math.floorDiv(clip.x + clip.width - 1 - left, pitchX),
+				last
+			);
+			upper = Math.max(Math.floorDiv(clip.y - top, pitchY), upper);
+			lower = Math.min(
+				Math.floorDiv(clip.y + clip.height - 1 - top, pitchY),
+				lower
+			);
+		}
+		
+		// Get sprites, restoring them if lost //
+		Image sprites = null;
+		if (atlas != null) {
+			sprites = atlas.validate(getGraphicsConfiguration());
+		}
+		
+		// Paint cells //
+		g.setFont(FONT_CELL);
+		for (int y = upper; y <= lower; y++) {
+			for (int x = first; x <= last; x++) {
+				int cell  = y * columns + x;
+				int cellX = left + x * pitchX;
+				int cellY = top + y * pitchY;
+				paintCell(g, sprites, cell, cellX, cellY);
+			}
+		}
+		
+		// Paint again if sprites were lost while painting //
+		if (atlas != null && atlas.contentsLost()) {
+			if (clip != null) {
+				repaint(clip);
+			} else {
+				repaint();
+			}
+		}
+	}
+	
+	/**
+	 * Paint the sprite of a jewel centered in a cell, as one blit from the
+	 * sprite atlas. Any part outside the cell is left out.
+	 *
+	 * @author Erik Selstam
+	 * @param g       Graphics context.
+	 * @param sprites Image of the sprite atlas.
+	 * @param jewel   Jewel to paint.
+	 * @param x       Left edge of the cell, relative to the view.
+	 * @param y       Top edge of the cell, relative to the view.
+	 */
+	private void paintSprite(
+		final Graphics g,
+		final Image    sprites,
+		final Jewel    jewel,
+		final int      x,
+		final int      y)
+	{
+		int spriteWidth  = atlas.getWidth();
+		int spriteHeight = atlas.getHeight(jewel);
+		int offsetX      = (cellWidth - spriteWidth) / 2;
+		int offsetY      = (cellHeight - spriteHeight) / 2;
+		int sourceX      = atlas.getX(jewel) + Math.max(-offsetX, 0);
+		int sourceY      = Math.max(-offsetY, 0);
+		int width        = Math.min(spriteWidth, cellWidth);
+		int height       = Math.min(spriteHeight, cellHeight);
+		int targetX      = x + Math.max(offsetX, 0);
+		int targetY      = y + Math.max(offsetY, 0);
+		g.drawImage(
+			sprites,
+			targetX,
+			targetY,
+			targetX + width,
+			targetY + height,
+			sourceX,
+			sourceY,
+			sourceX + width,
+			sourceY + height,
+			null
+		);
+	}
+	
+	/**
+	 * Repaint a cell, and nothing else.
+	 *
+	 * @author Erik Selstam
+	 * @param cell Index of the cell, or -1 for none.
+	 */
+	private void repaintCell(final int cell) {
+		if (cell < 0) {
+			return;
+		}
+		measure();
+		repaint(
+			left + cell % columns * (cellWidth + GRID_GAP),
+			top + cell / columns * (cellHeight + GRID_GAP),
+			cellWidth,
+			cellHeight
+		);
+	}
+	
+	@Override
+	public void setCellState(
+		final Coordinate position,
+		final boolean    activated)
+	{
+		// Validate argument //
+		if (position == null) {
+			throw new NullPointerException();
+		}
+		int cell = getIndex(position.getX(), position.getY());
+		
+		// Set state //
+		if (activated && cell != active) {
+			repaintCell(active);
+			active = cell;
+			repaintCell(cell);
+		} else if (!activated && cell == active) {
+			active = -1;
+			repaintCell(cell);
+		}
+	}
+	
+	/**
+	 * Set the hovered cell.
+	 *
+	 * @author Erik Selstam
+	 * @param cell Index of the cell, or -1 for none.
+	 */
+	private void setHover(final int cell) {
+		if (cell != hover) {
+			repaintCell(hover);
+			hover = cell;
+			repaintCell(cell);
+		}
+	}
+	
+	/**
+	 * Set theme and update accordingly. Sprites are shared with all other
+	 * views through the sprite cache.
+	 *
+	 * @author Erik Selstam
+	 * @param style Visual style.
+	 */
+	@Override
+	public void setStyle(final Style style) {
+		// Validate argument //
+		if (style == null) {
+			throw new IllegalArgumentException("`style` must not be null");
+		}
+		
+		// Get shared sprites //
+		atlas = SpriteCache.getAtlas(style, ICON_SIZE);
+		
+		// Update view //
+		repaint();
+	}
+	
+	/**
+	 * Show a cell, repainting it if its jewel changed.
+	 *
+	 * @author Erik Selstam
+	 * @param jewel Value of the cell.
+	 * @param cell  Index of the cell.
+	 */
+	private void showCell(final Jewel jewel, final int cell) {
+		if (cells[cell] != jewel) {
+			cells[cell] = jewel;
+			repaintCell(cell);
+		}
+	}
+	
+	@Override
+	public void update(final Observable o, final Object arg) {
+		if (o instanceof MatchThreeModel) {
+			if (arg instanceof BoardDelta) {
+				BoardDelta delta = (BoardDelta) arg;
+				for (int i = 0; i < delta.getCount(); i++) {
+					update(delta.getX(i), delta.getY(i), delta.getValue(i));
+				}
+			} else if (arg instanceof CellEvent) {
+				CellEvent  event = (CellEvent) arg;
+				Coordinate c     = event.getPos();
+				update(c.getX(), c.getY(), event.getType());
+			} else if (arg instanceof ColumnEvent) {
+				ColumnEvent event  = (ColumnEvent) arg;
+				Jewel[]     column = event.getCells();
+				for (int y = 0; y < column.length; y++) {
+					update(event.getX(), y, column[y]);
+				}
+			} else if (arg instanceof GameFinishedEvent) {
+				LabelEvent event = (LabelEvent) arg;
+				updates.run(() -> {
+					removeAll();
+					add(new GameFinished(event.getValue()));
+					repaint();
+					revalidate();
+				});
+			}
+		}
+	}
+	
+	/**
+	 * Update a cell. May be called from any thread. The cell is repainted
+	 * on the next frame, if its jewel changed.
+	 *
+	 * @author Erik Selstam
+	 * @param x     X-coordinate of the cell.
+	 * @param y     Y-coordinate of the cell.
+	 * @param jewel Value of the cell.
+	 */
+	public void update(final int x, final int y, final Jewel jewel) {
+		updates.put(getIndex(x, y), jewel);
+	}
+}
@@ -1,11 +1,11 @@
 package matchthree.view;
 
-import java.awt.AlphaComposite;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
 import java.awt.image.BufferedImage;
 import java.awt.Transparency;
 import javax.swing.ImageIcon;
@@ -36,12 +36,28 @@ public class Button
 	/** Default width. */
 	private static final int DEFAULT_WIDTH = 80;
 	
-	/** Button color. */
-	private Color color = new Color(0x00, 0x00, 0x00);
+	/** Number of shared mask images kept, the oldest being replaced first. */
+	private static final int MASK_CACHE_SIZE = 64;
+	
+	/** Keys of the shared mask images, packing their color and size. */
+	private static final long[] MASK_KEYS = new long[MASK_CACHE_SIZE];
+	
+	/** Mask images shared by all buttons, by key. */
+	private static final BufferedImage[] MASKS =
+		new BufferedImage[MASK_CACHE_SIZE];
+	
+	/** Index of the shared mask image to replace next. */
+	private static int nextMask = 0;
+	
+	/** Mask color, drawn over the button. Transparent until set. */
+	private Color color = new Color(0x00, 0x00, 0x00, 0x00);
 	
 	/** Button label. */
 	private JLabel label = new JLabel();
 	
+	/** Mask image of the current color, or null if not yet looked up. */
+	private BufferedImage mask = null;
+	
 	/**
 	 * Constructor.
 	 *
@@ -147,10 +163,70 @@ public class Button
 		Color newColor = getNewColor(color, alpha);
 		firePropertyChange("color", this.color, newColor);
 		this.color = newColor;
+		this.mask  = null;
 		
 		repaint();
 	}
 	
+	/**
+	 * Get an image filled with the mask color, of the size of the button.
+	 * Images are shared by all buttons with the same mask color and size, so
+	 * that they are only drawn when a color is first used. They are looked
+	 * up by a key packing the color with the size, so that changing the mask
+	 * color, as on every hover, builds no strings.
+	 *
+	 * @author Erik Selstam
+	 * @return The mask image.
+	 */
+	private BufferedImage getMask() {
+		// Reuse mask of the current size //
+		int width  = getWidth();
+		int height = getHeight();
+		if (mask != null
+			&& mask.getWidth() == width
+			&& mask.getHeight() == height)
+		{
+			return mask;
+		}
+		
+		// Look up shared mask //
+		long key = ((long) color.getRGB() << Integer.SIZE)
+			| ((width & 0xFFFFL) << Short.SIZE)
+			| (height & 0xFFFFL);
+		for (int i = 0; i < MASK_CACHE_SIZE; i++) {
+			if (MASKS[i] != null && MASK_KEYS[i] == key) {
+				mask = MASKS[i];
+				return mask;
+			}
+		}
+		
+		// Draw new mask //
+		GraphicsConfiguration config = getGraphicsConfiguration();
+		if (config != null) {
+			mask = config.createCompatibleImage(
+				width,
+				height,
+				Transparency.TRANSLUCENT
+			);
+		} else {
+			mask = new BufferedImage(
+				width,
+				height,
+				BufferedImage.TYPE_INT_ARGB_PRE
+			);
+		}
+		Graphics2D graphics = mask.createGraphics();
+		graphics.setColor(color);
+		graphics.fillRect(0, 0, width, height);
+		graphics.dispose();
+		
+		// Share mask, replacing the oldest //
+		MASK_KEYS[nextMask] = key;
+		MASKS[nextMask]     = mask;
+		nextMask            = (nextMask + 1) % MASK_CACHE_SIZE;
+		return mask;
+	}
+	
 	/**
 	 * ...
 	 *
@@ -178,45 +254,21 @@ public class Button
 	}
 	
 	/**
-	 * Update graphical image.
+	 * Update graphical image. The mask is drawn over the button from a
+	 * shared image, so that repaints allocate nothing.
 	 *
 	 * @author Erik Tran
+	 * @author Erik Selstam
 	 */
 	@Override
 	protected void paintComponent(final Graphics g) {
 		super.paintComponent(g);
 		
-		BufferedImage image =
-			getGraphicsConfiguration().createCompatibleImage(
-				getWidth(),
-				getHeight(),
-				Transparency.TRANSLUCENT
-			);
-		image.coerceData(true);
-		
-		Graphics2D imageGraphics = image.createGraphics();
-		imageGraphics.dispose();
-		
-		BufferedImage mask =
-			getGraphicsConfiguration().createCompatibleImage(
-				image.getWidth(),
-				image.getHeight(),
-				Transparency.TRANSLUCENT
-			);
-		mask.coerceData(true);
-		
-		Graphics2D maskGraphics = mask.createGraphics();
-		maskGraphics.drawImage(image, 0, 0, null);
-		AlphaComposite composite = AlphaComposite.getInstance(
-			AlphaComposite.SRC_IN,
-			1f
-		);
-		maskGraphics.setComposite(composite);
-		maskGraphics.setColor(color);
-		maskGraphics.fillRect(0, 0, image.getWidth(), image.getHeight());
-		maskGraphics.dispose();
+		// Skip transparent or empty mask //
+		if (color.getAlpha() == 0 || getWidth() <= 0 || getHeight() <= 0) {
+			return;
+		}
 		
-		g.drawImage(image, 0, 0, this);
-		g.drawImage(mask, 0, 0, this);
+		g.drawImage(getMask(), 0, 0, null);
 	}
 }
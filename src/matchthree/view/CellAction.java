@@ -0,0 +1,45 @@
+package matchthree.view;
+
+import java.awt.event.ActionEvent;
+import matchthree.model.Coordinate;
+
+/**
+ * Action (click) on a board cell that is not a component of its own.
+ *
+ * @author Erik Selstam
+ */
+@SuppressWarnings("serial")
+public class CellAction
+	extends ActionEvent
+{
+	/** Coordinates of the cell. */
+	private final Coordinate position;
+	
+	/**
+	 * Constructor.
+	 *
+	 * @author Erik Selstam
+	 * @param source   View holding the cell.
+	 * @param position Coordinates of the cell.
+	 */
+	public CellAction(final Object source, final Coordinate position) {
+		super(source, ACTION_PERFORMED, null);
+		
+		// Validate argument //
+		if (position == null) {
+			throw new NullPointerException();
+		}
+		
+		this.position = position;
+	}
+	
+	/**
+	 * Get the coordinates of the cell.
+	 *
+	 * @author Erik Selstam
+	 * @return The coordinates.
+	 */
+	public Coordinate getPosition() {
+		return position;
+	}
+}
@@ -0,0 +1,133 @@
+package matchthree.view;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.ObjIntConsumer;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import matchthree.model.Jewel;
+
+/**
+ * Lock-free queue of cell updates for a board view, drained once per frame
+ * on the event dispatch thread.
+ *
+ * <p>
+ * Models notify their observers on the thread that changed them, which for
+ * opponent boards is a network or AI thread. Updates may be put here from
+ * any thread, and only the latest value of each cell is kept until the next
+ * frame, so a burst of updates costs one pass over the changed cells. The
+ * value of a cell is stored before the cell is marked, and the mark is
+ * cleared before the value is read, so the last value put is always
+ * delivered, possibly twice.
+ * </p>
+ *
+ * @author Erik Selstam
+ */
+final class CellUpdateQueue
+{
+	/** Delay from the first update to the drain, in milliseconds. */
+	private static final int FRAME_TIME = 16;
+	
+	/** Base two logarithm of the number of bits in a word. */
+	private static final int WORD_SHIFT = 6;
+	
+	/** Changed cells, one bit per cell. */
+	private final AtomicLongArray marks;
+	
+	/** Whether a drain is scheduled. */
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+	
+	/** Receiver of the latest value and index of each changed cell. */
+	private final ObjIntConsumer<Jewel> target;
+	
+	/** Timer for the next drain. */
+	private final Timer timer;
+	
+	/** Latest value, per cell. */
+	private final AtomicReferenceArray<Jewel> values;
+	
+	/**
+	 * Constructor.
+	 *
+	 * @author Erik Selstam
+	 * @param size   Number of cells.
+	 * @param target Receiver of the latest value and row-major index of each
+	 *               changed cell, called on the event dispatch thread.
+	 */
+	CellUpdateQueue(final int size, final ObjIntConsumer<Jewel> target) {
+		// Validate arguments //
+		if (target == null) {
+			throw new NullPointerException();
+		}
+		if (size < 0) {
+			throw new IllegalArgumentException("`size` must be at least 0");
+		}
+		
+		// Assign fields //
+		this.marks  = new AtomicLongArray((size + Long.SIZE - 1) / Long.SIZE);
+		this.target = target;
+		this.values = new AtomicReferenceArray<Jewel>(size);
+		this.timer  = new Timer(FRAME_TIME, event -> drain());
+		timer.setRepeats(false);
+	}
+	
+	/**
+	 * Deliver the changed cells. Must be called on the event dispatch thread.
+	 *
+	 * @author Erik Selstam
+	 */
+	void drain() {
+		scheduled.set(false);
+		for (int word = 0; word < marks.length(); word++) {
+			// Skip unchanged cells //
+			if (marks.get(word) == 0) {
+				continue;
+			}
+			
+			// Take marks and deliver values //
+			long bits = marks.getAndSet(word, 0);
+			while (bits != 0) {
+				int cell =
+					(word << WORD_SHIFT) + Long.numberOfTrailingZeros(bits);
+				target.accept(values.get(cell), cell);
+				bits &= bits - 1;
+			}
+		}
+	}
+	
+	/**
+	 * Put an update. May be called from any thread.
+	 *
+	 * @author Erik Selstam
+	 * @param cell  Row-major index of the cell.
+	 * @param jewel Value of the cell.
+	 */
+	void put(final int cell, final Jewel jewel) {
+		// Store value, then mark cell //
+		values.set(cell, jewel);
+		int word = cell >>> WORD_SHIFT;
+		marks.accumulateAndGet(word, 1L << cell, (a, b) -> a | b);
+		
+		// Schedule drain //
+		// NOTE: The timer is only started on the event dispatch thread, as
+		//       starting it elsewhere may cancel a drain already queued there.
+		if (scheduled.compareAndSet(false, true)) {
+			SwingUtilities.invokeLater(timer::restart);
+		}
+	}
+	
+	/**
+	 * Run a task on the event dispatch thread, after delivering the updates
+	 * put before it. May be called from any thread.
+	 *
+	 * @author Erik Selstam
+	 * @param task Task to run.
+	 */
+	void run(final Runnable task) {
+		SwingUtilities.invokeLater(() -> {
+			drain();
+			task.run();
+		});
+	}
+}
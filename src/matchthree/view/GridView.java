@@ -6,21 +6,23 @@ import java.awt.event.ActionListener;
 import java.awt.event.MouseListener;
 import java.awt.Font;
 import java.awt.GridLayout;
-import java.awt.Image;
 import java.awt.image.BufferedImage;
 import java.awt.LayoutManager;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Observable;
 import java.util.Observer;
 import javax.swing.ImageIcon;
 import javax.swing.JLayeredPane;
+import matchthree.message.BoardDelta;
 import matchthree.message.CellEvent;
+import matchthree.message.ColumnEvent;
 import matchthree.message.GameFinishedEvent;
 import matchthree.message.LabelEvent;
 import matchthree.model.Coordinate;
 import matchthree.model.Jewel;
 import matchthree.model.MatchThreeModel;
 import matchthree.model.Settings.Style;
-import matchthree.util.AssetManager;
 
 /**
  * MatchThree grid view.
@@ -32,7 +34,7 @@ import matchthree.util.AssetManager;
 @SuppressWarnings({"deprecation", "serial"})
 public class GridView
 	extends Panel
-	implements Observer
+	implements BoardRenderer, Observer
 {
 	/** Active cell color. */
 	private static final Color COLOR_ACTIVE_CELL = Color.RED;
@@ -71,24 +73,16 @@ public class GridView
 	/** Cell grid. */
 	private Cell[] board = null;
 	
-	/** Diamond icon. */
-	private ImageIcon iconDiamond = null;
-	
-	/** Emerald icon. */
-	private ImageIcon iconEmerald = null;
-	
-	/** Ruby icon. */
-	private ImageIcon iconRuby = null;
-	
-	/** Sapphire icon. */
-	private ImageIcon iconSapphire = null;
-	
-	/** Topaz icon. */
-	private ImageIcon iconTopaz = null;
+	/** Jewel icons of the current style. Missing icons are shown as text. */
+	private final Map<Jewel, ImageIcon> icons =
+		new EnumMap<Jewel, ImageIcon>(Jewel.class);
 	
 	/** Game model. */
 	private MatchThreeModel model = null;
 	
+	/** Cell updates not yet shown. */
+	private final CellUpdateQueue updates;
+	
 	/**
 	 * Constructor.
 	 *
@@ -104,17 +98,20 @@ public class GridView
 		}
 		
 		// Assign fields //
-		this.model = model;
+		int width    = model.getWidth();
+		int height   = model.getHeight();
+		this.model   = model;
+		this.updates = new CellUpdateQueue(width * height, this::showCell);
 		
 		// Bind to model //
 		model.addObserver(this);
 		
 		// Construct grid //
-		int width = model.getWidth();
-		Container grid = createGrid(width);
+		Container grid = createGrid(width, height);
 		
-		// Load external resources //
+		// Load external resources, and show them at once //
 		setStyle(style);
+		updates.drain();
 		
 		// Set layout //
 		setLayout(new GridLayout());
@@ -129,6 +126,7 @@ public class GridView
 	 * @author Erik Selstam
 	 * @param listener Event handler.
 	 */
+	@Override
 	public void addBoardListener(final ActionListener listener) {
 		// Validate argument //
 		if (listener == null) {
@@ -176,20 +174,22 @@ public class GridView
 	 *
 	 * @author Erik Selstam
 	 * @author Erik Tran
-	 * @param width Width of the grid.
+	 * @param width  Width of the grid.
+	 * @param height Height of the grid.
 	 * @return Game grid container.
 	 */
-	private Container createGrid(final int width) {
+	private Container createGrid(final int width, final int height) {
 		// Create grid //
 		Container grid = new SubPanel();
 		
 		// Set grid layout //
-		LayoutManager layout = new GridLayout(width, width, GRID_GAP, GRID_GAP);
+		LayoutManager layout =
+			new GridLayout(height, width, GRID_GAP, GRID_GAP);
 		grid.setLayout(layout);
 		
 		// Fill grid //
-		board = new Cell[width * width];
-		for (int i = 0; i < width * width; i++) {
+		board = new Cell[width * height];
+		for (int i = 0; i < width * height; i++) {
 			// Get coordinates //
 			int x = i % width;
 			int y = i / width;
@@ -201,8 +201,8 @@ public class GridView
 			// Set button properties //
 			button.setFont(FONT_CELL);
 			
-			// Update button state from view //
-			update(x, y, model.get(x, y));
+			// Update button state from model //
+			showCell(model.get(x, y), i);
 			
 			// Add button to grid //
 			grid.add(button, JLayeredPane.DEFAULT_LAYER);
@@ -218,7 +218,7 @@ public class GridView
 	 * @param jewel Jewel to get the color of.
 	 * @return The color of the jewel.
 	 */
-	private Color getColor(final Jewel jewel) {
+	static Color getColor(final Jewel jewel) {
 		switch (jewel) {
 			case DIAMOND:  return COLOR_DIAMOND;
 			case EMERALD:  return COLOR_EMERALD;
@@ -237,99 +237,33 @@ public class GridView
 	 *
 	 * @author Erik Selstam
 	 * @param jewel Jewel to get the icon of.
-	 * @return The icon of the jewel.
+	 * @return The icon of the jewel, or null if the style has none.
 	 */
 	private ImageIcon getIcon(final Jewel jewel) {
-		switch (jewel) {
-			case DIAMOND:  return iconDiamond;
-			case EMERALD:  return iconEmerald;
-			case RUBY:     return iconRuby;
-			case SAPPHIRE: return iconSapphire;
-			case TOPAZ:    return iconTopaz;
-			default:
-				throw new IllegalStateException(
-					"Unknown value for `Jewel`"
-				);
-		}
+		return icons.get(jewel);
 	}
 	
 	/**
-	 * Set theme and update accordingly.
+	 * Set theme and update accordingly. Sprites are shared with all other
+	 * views through the sprite cache.
 	 *
 	 * @author Erik Selstam
 	 * @author Erik Tran
 	 * @param style Visual style.
 	 */
+	@Override
 	public void setStyle(final Style style) {
 		// Validate argument //
 		if (style == null) {
 			throw new IllegalArgumentException("`style` must not be null");
 		}
 		
-		// Get file paths //
-		// TODO: Use type suitable for paths instead.
-		// TODO: Find a more elegant solution to this (wrap in a class?).
-		String pathDiamond;
-		String pathEmerald;
-		String pathRuby;
-		String pathSapphire;
-		String pathTopaz;
-		switch (style) {
-			case CLASSIC:
-				pathDiamond  = "Version 1/Diamond.png";
-				pathEmerald  = "Version 1/Emerald.png";
-				pathRuby     = "Version 1/Ruby.png";
-				pathSapphire = "Version 1/Sapphire.png";
-				pathTopaz    = "Version 1/Topaz.png";
-				break;
-			case GEMSTONES:
-				pathDiamond  = "Version 3/Diamond.png";
-				pathEmerald  = "Version 3/Emerald.png";
-				pathRuby     = "Version 3/Ruby.png";
-				pathSapphire = "Version 3/Sapphire.png";
-				pathTopaz    = "Version 3/Topaz.png";
-				break;
-			case NONE:
-				pathDiamond  = null;
-				pathEmerald  = null;
-				pathRuby     = null;
-				pathSapphire = null;
-				pathTopaz    = null;
-				break;
-			case STEEL:
-				pathDiamond  = "Version 2/Diamond.png";
-				pathEmerald  = "Version 2/Emerald.png";
-				pathRuby     = "Version 2/Ruby.png";
-				pathSapphire = "Version 2/Sapphire.png";
-				pathTopaz    = "Version 2/Topaz.png";
-				break;
-			default:
-				throw new IllegalStateException("Unknown value for `Style`");
+		// Get shared sprites //
+		for (final Jewel jewel : Jewel.values()) {
+			BufferedImage sprite = SpriteCache.get(style, jewel, ICON_SIZE);
+			icons.put(jewel, (sprite != null) ? new ImageIcon(sprite) : null);
 		}
 		
-		// Load images //
-		BufferedImage imageDiamond  = AssetManager.loadImage(pathDiamond);
-		BufferedImage imageEmerald  = AssetManager.loadImage(pathEmerald);
-		BufferedImage imageRuby     = AssetManager.loadImage(pathRuby);
-		BufferedImage imageSapphire = AssetManager.loadImage(pathSapphire);
-		BufferedImage imageTopaz    = AssetManager.loadImage(pathTopaz);
-		
-		// Scale images //
-		int scale = java.awt.Image.SCALE_SMOOTH;
-		int size  = ICON_SIZE;
-		Image scaledDiamond  = imageDiamond.getScaledInstance(size, -1, scale);
-		Image scaledEmerald  = imageEmerald.getScaledInstance(size, -1, scale);
-		Image scaledRuby     = imageRuby.getScaledInstance(size, -1, scale);
-		Image scaledSapphire = imageSapphire.getScaledInstance(size, -1, scale);
-		Image scaledTopaz    = imageTopaz.getScaledInstance(size, -1, scale);
-		
-		// Update icon storage //
-		iconDiamond  = new ImageIcon(scaledDiamond);
-		iconEmerald  = new ImageIcon(scaledEmerald);
-		iconRuby     = new ImageIcon(scaledRuby);
-		iconSapphire = new ImageIcon(scaledSapphire);
-		iconTopaz    = new ImageIcon(scaledTopaz);
-		
 		// Update view //
 		update();
 	}
@@ -342,6 +276,7 @@ public class GridView
 	 * @param position  Coordinates of the cell.
 	 * @param activated Whether cell is active.
 	 */
+	@Override
 	public void setCellState(
 		final Coordinate position,
 		final boolean    activated)
@@ -351,7 +286,7 @@ public class GridView
 			throw new NullPointerException();
 		}
 		int width = model.getWidth();
-		if (position.getX() >= width || position.getY() >= width) {
+		if (position.getX() >= width || position.getY() >= model.getHeight()) {
 			throw new IndexOutOfBoundsException();
 		}
 		
@@ -381,7 +316,7 @@ public class GridView
 	 */
 	public void update() {
 		int width = model.getWidth();
-		for (int i = 0; i < width * width; i++) {
+		for (int i = 0; i < width * model.getHeight(); i++) {
 			int x = i % width;
 			int y = i / width;
 			update(x, y);
@@ -391,18 +326,31 @@ public class GridView
 	@Override
 	public void update(final Observable o, final Object arg) {
 		if (o instanceof MatchThreeModel) {
-			if (arg instanceof CellEvent) {
+			if (arg instanceof BoardDelta) {
+				BoardDelta delta = (BoardDelta) arg;
+				for (int i = 0; i < delta.getCount(); i++) {
+					update(delta.getX(i), delta.getY(i), delta.getValue(i));
+				}
+			} else if (arg instanceof CellEvent) {
 				CellEvent event = (CellEvent) arg;
 				Coordinate c = event.getPos();
 				Jewel j = event.getType();
 				update(c, j);
+			} else if (arg instanceof ColumnEvent) {
+				ColumnEvent event = (ColumnEvent) arg;
+				Jewel[] cells = event.getCells();
+				for (int y = 0; y < cells.length; y++) {
+					update(event.getX(), y, cells[y]);
+				}
 			} else if (arg instanceof GameFinishedEvent) {
 				LabelEvent event = (LabelEvent) arg;
-				removeAll();
-				GameFinished f = new GameFinished(event.getValue());
-				add(f);
-				repaint();
-				revalidate();
+				updates.run(() -> {
+					removeAll();
+					GameFinished f = new GameFinished(event.getValue());
+					add(f);
+					repaint();
+					revalidate();
+				});
 			}
 		}
 	}
@@ -463,7 +411,8 @@ public class GridView
 	}
 	
 	/**
-	 * Update a cell.
+	 * Update a cell. May be called from any thread. The cell is shown on the
+	 * next frame.
 	 *
 	 * @author Erik Selstam
 	 * @param x     X-coordinate of the cell.
@@ -483,14 +432,25 @@ public class GridView
 		if (x >= width) {
 			throw new IndexOutOfBoundsException("`x` out-of-bounds");
 		}
-		if (y >= width) {
+		if (y >= model.getHeight()) {
 			throw new IndexOutOfBoundsException("`y` out-of-bounds");
 		}
 		
-		// Get button from view //
+		// Queue update //
 		// TODO: Add assert for `width` or rely less on model consistency?
-		int  index = y * width + x;
-		Cell cell  = board[index];
+		updates.put(y * width + x, jewel);
+	}
+	
+	/**
+	 * Show a cell. Must be called on the event dispatch thread.
+	 *
+	 * @author Erik Selstam
+	 * @param jewel Value of the cell.
+	 * @param index Row-major index of the cell.
+	 */
+	private void showCell(final Jewel jewel, final int index) {
+		// Get button from view //
+		Cell cell = board[index];
 		
 		// Hide cell if empty //
 		cell.setVisible(cell != null);
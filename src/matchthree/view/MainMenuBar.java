@@ -20,12 +20,24 @@ public class MainMenuBar
 	/** "Open" item. */
 	private JMenuItem openItem = new JMenuItem("Open…");
 	
+	/** "Play Replay" item. */
+	private JMenuItem playReplayItem = new JMenuItem("Play Replay…");
+	
 	/** "Quit" item. */
 	private JMenuItem quitItem = new JMenuItem("Quit");
 	
+	/** "Redo" item. */
+	private JMenuItem redoItem = new JMenuItem("Redo");
+	
 	/** "Save" item. */
 	private JMenuItem saveItem = new JMenuItem("Save…");
 	
+	/** "Save Replay" item. */
+	private JMenuItem saveReplayItem = new JMenuItem("Save Replay…");
+	
+	/** "Undo" item. */
+	private JMenuItem undoItem = new JMenuItem("Undo");
+	
 	/**
 	 * Create `MenuBar`.
 	 *
@@ -38,10 +50,19 @@ public class MainMenuBar
 		fileMenu.add(openItem);
 		fileMenu.add(saveItem);
 		fileMenu.addSeparator();
+		fileMenu.add(playReplayItem);
+		fileMenu.add(saveReplayItem);
+		fileMenu.addSeparator();
 		fileMenu.add(quitItem);
 		
+		// Create "Edit" menu //
+		JMenu editMenu = new JMenu("Edit");
+		editMenu.add(undoItem);
+		editMenu.add(redoItem);
+		
 		// Assemble menu bar //
 		add(fileMenu);
+		add(editMenu);
 	}
 	
 	/**
@@ -72,6 +93,20 @@ public class MainMenuBar
 		openItem.addActionListener(listener);
 	}
 	
+	/**
+	 * Add listener for "Play Replay" menu item.
+	 *
+	 * @author Erik Selstam
+	 * @param listener Event handler.
+	 */
+	public void addPlayReplayListener(final ActionListener listener) {
+		// Validate argument //
+		if (listener == null) {
+			throw new NullPointerException();
+		}
+		playReplayItem.addActionListener(listener);
+	}
+	
 	/**
 	 * Add listener for "Quit" menu item.
 	 *
@@ -86,6 +121,20 @@ public class MainMenuBar
 		quitItem.addActionListener(listener);
 	}
 	
+	/**
+	 * Add listener for "Redo" menu item.
+	 *
+	 * @author Erik Selstam
+	 * @param listener Event handler.
+	 */
+	public void addRedoListener(final ActionListener listener) {
+		// Validate argument //
+		if (listener == null) {
+			throw new NullPointerException();
+		}
+		redoItem.addActionListener(listener);
+	}
+	
 	/**
 	 * Add listener for "Save" menu item.
 	 *
@@ -99,4 +148,32 @@ public class MainMenuBar
 		}
 		saveItem.addActionListener(listener);
 	}
+	
+	/**
+	 * Add listener for "Save Replay" menu item.
+	 *
+	 * @author Erik Selstam
+	 * @param listener Event handler.
+	 */
+	public void addSaveReplayListener(final ActionListener listener) {
+		// Validate argument //
+		if (listener == null) {
+			throw new NullPointerException();
+		}
+		saveReplayItem.addActionListener(listener);
+	}
+	
+	/**
+	 * Add listener for "Undo" menu item.
+	 *
+	 * @author Erik Selstam
+	 * @param listener Event handler.
+	 */
+	public void addUndoListener(final ActionListener listener) {
+		// Validate argument //
+		if (listener == null) {
+			throw new NullPointerException();
+		}
+		undoItem.addActionListener(listener);
+	}
 }
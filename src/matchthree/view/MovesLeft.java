@@ -4,7 +4,10 @@ import java.awt.Color;
 import java.awt.Font;
 import java.util.Observable;
 import java.util.Observer;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.swing.JLabel;
+import javax.swing.SwingUtilities;
 import matchthree.message.LabelEvent;
 import matchthree.message.MovesLeftEvent;
 import matchthree.model.MatchThreeModel;
@@ -12,6 +15,11 @@ import matchthree.model.MatchThreeModel;
 /**
  * Score counter.
  *
+ * <p>
+ * Like `Score`, the value may be updated from any thread, and only the latest
+ * value is shown on the event dispatch thread.
+ * </p>
+ *
  * @author Linus Aronsson
  * @author Erik Selstam
  */
@@ -24,6 +32,12 @@ public class MovesLeft
 	/** Font. */
 	private static final Font FONT = new Font("Helvetica Neue", Font.BOLD, 20);
 	
+	/** Whether showing the latest value is queued. */
+	private final AtomicBoolean scheduled = new AtomicBoolean(false);
+	
+	/** Latest value. */
+	private final AtomicInteger value = new AtomicInteger();
+	
 	/**
 	 * Create `Score`.
 	 *
@@ -38,8 +52,8 @@ public class MovesLeft
 		}
 		
 		// Update state //
-		int value = matchThreeModel.getMovesLeft();
-		update(value);
+		value.set(matchThreeModel.getMovesLeft());
+		showValue();
 		
 		// Add observer //
 		matchThreeModel.addObserver(this);
@@ -56,7 +70,23 @@ public class MovesLeft
 	 * @param score New value.
 	 */
 	public void update(final int score) {
-		setText("Moves left: " + score);
+		// Store value, then schedule showing it //
+		value.set(score);
+		if (scheduled.compareAndSet(false, true)) {
+			SwingUtilities.invokeLater(this::showValue);
+		}
+	}
+	
+	/**
+	 * Show the latest value. Must be called on the event dispatch thread.
+	 *
+	 * @author Erik Selstam
+	 */
+	private void showValue() {
+		// NOTE: The flag is cleared before the value is read, so that a value
+		//       stored meanwhile schedules showing it again.
+		scheduled.set(false);
+		setText("Moves left: " + value.get());
 	}
 	
 	@Override
@@ -28,6 +28,9 @@ public class MultiplayerMenuView
 	/** Font. */
 	private static final Font FONT = new Font("Impact", Font.PLAIN, 20);
 	
+	/** AI opponent button. */
+	private Button ai = new Button();
+	
 	/** ... */
 	private Button connect = new Button();
 	
@@ -61,6 +64,19 @@ public class MultiplayerMenuView
 		connectLabel.setFont(FONT);
 		connect.add(connectLabel);
 		
+		// Set AI button properties //
+		ai.setBackground(Color.BLACK);
+		ai.setContentAreaFilled(true);
+		ai.setForeground(Color.WHITE);
+		ai.setPreferredSize(new Dimension(160, 80));
+		ai.setSize(new Dimension(160, 80));
+		
+		// Create AI label //
+		JLabel aiLabel = new JLabel(" Play against AI");
+		aiLabel.setForeground(Color.WHITE);
+		aiLabel.setFont(FONT);
+		ai.add(aiLabel);
+		
 		// Create IP label //
 		JLabel ipLabel = new JLabel("IP: ");
 		ipLabel.setFont(FONT);
@@ -110,9 +126,20 @@ public class MultiplayerMenuView
 		// Assemble view //
 		add(connect);
 		add(bothpanel);
+		add(ai);
 		add(backPanel);
 	}
 	
+	/**
+	 * Add a listener for the AI opponent button.
+	 *
+	 * @author Erik Selstam
+	 * @param listener Listener to add.
+	 */
+	public void addAIListener(final ActionListener listener) {
+		ai.addActionListener(listener);
+	}
+	
 	/**
 	 * ...
 	 *
@@ -147,6 +174,16 @@ public class MultiplayerMenuView
 		target.addMouseListener(listener);
 	}
 	
+	/**
+	 * Get the AI opponent button.
+	 *
+	 * @author Erik Selstam
+	 * @return The button.
+	 */
+	public Button getAIButton() {
+		return ai;
+	}
+	
 	/**
 	 * ...
 	 *
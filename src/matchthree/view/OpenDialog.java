@@ -0,0 +1,52 @@
+package matchthree.view;
+
+import java.io.File;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import javax.swing.JFileChooser;
+
+/**
+ * Floating open dialog.
+ *
+ * @author Erik Selstam
+ */
+@SuppressWarnings("serial")
+public class OpenDialog
+	extends JFileChooser
+{
+	/** Chosen button. */
+	private int choice = 0;
+	
+	/**
+	 * Create `OpenDialog` for a type of file.
+	 *
+	 * @author Erik Selstam
+	 * @param description Description of the file type.
+	 * @param extension   File name extension of the file type.
+	 */
+	public OpenDialog(final String description, final String extension) {
+		// Set file extension filter //
+		FileNameExtensionFilter filter = new FileNameExtensionFilter(
+			description,
+			extension
+		);
+		setFileFilter(filter);
+		
+		// Display dialog //
+		choice = showOpenDialog(null);
+	}
+	
+	/**
+	 * Get chosen file.
+	 *
+	 * @author Erik Selstam
+	 * @return The chosen file.
+	 */
+	public File getResult() {
+		switch (choice) {
+			case JFileChooser.APPROVE_OPTION: return getSelectedFile();
+			case JFileChooser.CANCEL_OPTION:  return null;
+			case JFileChooser.ERROR_OPTION:   return null;
+			default: throw new IllegalStateException();
+		}
+	}
+}
@@ -22,14 +22,25 @@ public class SaveDialog
 	 * @author Erik Selstam
 	 */
 	public SaveDialog() {
+		this("MatchThree Save File", "jewel");
+	}
+	
+	/**
+	 * Create `SaveDialog` for a type of file.
+	 *
+	 * @author Erik Selstam
+	 * @param description Description of the file type.
+	 * @param extension   File name extension of the file type.
+	 */
+	public SaveDialog(final String description, final String extension) {
 		// TODO: Use `FileDialog` instead?
 		//FileDialog fileDialog = new FileDialog(this);
 		//fileDialog.setVisible(true);
 		
 		// Set file extension filter //
 		FileNameExtensionFilter filter = new FileNameExtensionFilter(
-			"MatchThree Save File",
-			"jewel"
+			description,
+			extension
 		);
 		setFileFilter(filter);
 		
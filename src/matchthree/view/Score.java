@@ -4,7 +4,10 @@ import java.awt.Color;
 import java.awt.Font;
 import java.util.Observable;
 import java.util.Observer;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.swing.JLabel;
+import javax.swing.SwingUtilities;
 import matchthree.message.LabelEvent;
 import matchthree.message.ScoreEvent;
 import matchthree.model.MatchThreeModel;
@@ -12,6 +15,13 @@ import matchthree.model.MatchThreeModel;
 /**
  * Score counter.
  *
+ * <p>
+ * The value may be updated from any thread, and is shown on the event
+ * dispatch thread. Values updated before the label is next shown are
+ * coalesced, so a model making moves faster than frames are drawn queues at
+ * most one task.
+ * </p>
+ *
  * @author Linus Aronsson
  * @author Erik Selstam
  */
@@ -24,6 +34,12 @@ public class Score
 	/** Font. */
 	private static final Font FONT = new Font("Helvetica Neue", Font.PLAIN, 20);
 	
+	/** Whether showing the latest value is queued. */
+	private final AtomicBoolean scheduled = new AtomicBoolean(false);
+	
+	/** Latest value. */
+	private final AtomicInteger value = new AtomicInteger();
+	
 	/**
 	 * Create `Score`.
 	 *
@@ -38,7 +54,7 @@ public class Score
 		}
 		
 		// Update state //
-		update(0);
+		showValue();
 		
 		// Add observer //
 		matchThreeModel.addObserver(this);
@@ -56,7 +72,23 @@ public class Score
 	 * @param score New value.
 	 */
 	public void update(final int score) {
-		setText("Score: " + score);
+		// Store value, then schedule showing it //
+		value.set(score);
+		if (scheduled.compareAndSet(false, true)) {
+			SwingUtilities.invokeLater(this::showValue);
+		}
+	}
+	
+	/**
+	 * Show the latest value. Must be called on the event dispatch thread.
+	 *
+	 * @author Erik Selstam
+	 */
+	private void showValue() {
+		// NOTE: The flag is cleared before the value is read, so that a value
+		//       stored meanwhile schedules showing it again.
+		scheduled.set(false);
+		setText("Score: " + value.get());
 	}
 	
 	@Override
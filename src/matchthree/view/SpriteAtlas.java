@@ -0,0 +1,191 @@
+package matchthree.view;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+import java.awt.Transparency;
+import matchthree.model.Jewel;
+
+/**
+ * Jewel sprites of one style and size, packed side by side into one image.
+ *
+ * <p>
+ * The packed image is kept in memory, and copied into a `VolatileImage` of
+ * the screen being drawn to, so that pipelines with acceleration, such as
+ * OpenGL and XRender, draw cells as blits between surfaces on the graphics
+ * card. The copy is validated once per paint, and restored when the surface
+ * is lost or the view moves to another screen. Where the copy would not be
+ * accelerated, or there is no screen, the packed image is drawn instead.
+ * </p>
+ *
+ * <p>
+ * Atlases are shared through `SpriteCache`, and must only be drawn on the
+ * event dispatch thread.
+ * </p>
+ *
+ * @author Erik Selstam
+ */
+final class SpriteAtlas
+{
+	/** Height of each sprite, by jewel ordinal. 0 for missing sprites. */
+	private final int[] heights;
+	
+	/** Packed sprites. */
+	private final BufferedImage image;
+	
+	/** Width of each sprite. */
+	private final int size;
+	
+	/** Screen copy of the packed sprites, or null if none. */
+	private VolatileImage surface = null;
+	
+	/** Screen on which copies are not accelerated, or null if none. */
+	private GraphicsConfiguration unaccelerated = null;
+	
+	/**
+	 * Constructor.
+	 *
+	 * @author Erik Selstam
+	 * @param sprites Sprite of each jewel, by ordinal, or null for missing
+	 *                sprites. Each sprite is `size` pixels wide.
+	 * @param size    Width of each sprite.
+	 * @param image   Empty image to pack the sprites into, at least `size`
+	 *                times the number of sprites wide, and as high as the
+	 *                highest sprite.
+	 */
+	SpriteAtlas(
+		final BufferedImage[] sprites,
+		final int             size,
+		final BufferedImage   image)
+	{
+		this.heights = new int[sprites.length];
+		this.image   = image;
+		this.size    = size;
+		
+		// Pack sprites //
+		Graphics2D graphics = image.createGraphics();
+		for (int i = 0; i < sprites.length; i++) {
+			if (sprites[i] != null) {
+				heights[i] = sprites[i].getHeight();
+				graphics.drawImage(sprites[i], i * size, 0, null);
+			}
+		}
+		graphics.dispose();
+	}
+	
+	/**
+	 * Check whether a jewel has a sprite.
+	 *
+	 * @author Erik Selstam
+	 * @param jewel Jewel to check.
+	 * @return Whether the jewel has a sprite.
+	 */
+	boolean contains(final Jewel jewel) {
+		return heights[jewel.ordinal()] > 0;
+	}
+	
+	/**
+	 * Check whether the screen copy was lost since it was last validated, in
+	 * which case anything drawn from it must be drawn again.
+	 *
+	 * @author Erik Selstam
+	 * @return Whether the contents were lost.
+	 */
+	boolean contentsLost() {
+		return surface != null && surface.contentsLost();
+	}
+	
+	/**
+	 * Copy the packed sprites to the screen copy.
+	 *
+	 * @author Erik Selstam
+	 */
+	private void copy() {
+		Graphics2D graphics = surface.createGraphics();
+		graphics.setComposite(AlphaComposite.Src);
+		graphics.drawImage(image, 0, 0, null);
+		graphics.dispose();
+	}
+	
+	/**
+	 * Get the height of the sprite of a jewel.
+	 *
+	 * @author Erik Selstam
+	 * @param jewel Jewel to get the sprite of.
+	 * @return Height in pixels, or 0 if the sprite is missing.
+	 */
+	int getHeight(final Jewel jewel) {
+		return heights[jewel.ordinal()];
+	}
+	
+	/**
+	 * Get the width of each sprite.
+	 *
+	 * @author Erik Selstam
+	 * @return Width in pixels.
+	 */
+	int getWidth() {
+		return size;
+	}
+	
+	/**
+	 * Get the left edge of the sprite of a jewel within the atlas.
+	 *
+	 * @author Erik Selstam
+	 * @param jewel Jewel to get the sprite of.
+	 * @return X-coordinate in pixels.
+	 */
+	int getX(final Jewel jewel) {
+		return jewel.ordinal() * size;
+	}
+	
+	/**
+	 * Get the image to draw sprites from, for one paint. The screen copy is
+	 * created or restored as needed.
+	 *
+	 * @author Erik Selstam
+	 * @param config Screen being drawn to, or null if unknown.
+	 * @return The screen copy, or the packed image if the copy would not be
+	 *         accelerated.
+	 */
+	Image validate(final GraphicsConfiguration config) {
+		// Use packed image without accelerated screen //
+		if (config == null || config == unaccelerated) {
+			return image;
+		}
+		
+		// Restore lost contents //
+		if (surface != null) {
+			int status = surface.validate(config);
+			if (status == VolatileImage.IMAGE_OK) {
+				return surface;
+			}
+			if (status == VolatileImage.IMAGE_RESTORED) {
+				copy();
+				return surface;
+			}
+			surface.flush();
+			surface = null;
+		}
+		
+		// Create copy for a new screen //
+		surface = config.createCompatibleVolatileImage(
+			image.getWidth(),
+			image.getHeight(),
+			Transparency.TRANSLUCENT
+		);
+		if (surface == null || !surface.getCapabilities().isAccelerated()) {
+			if (surface != null) {
+				surface.flush();
+			}
+			surface       = null;
+			unaccelerated = config;
+			return image;
+		}
+		copy();
+		return surface;
+	}
+}
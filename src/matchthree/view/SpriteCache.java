@@ -0,0 +1,215 @@
+package matchthree.view;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+import matchthree.model.Jewel;
+import matchthree.model.Settings.Style;
+import matchthree.util.AssetManager;
+
+/**
+ * Process-wide cache of jewel sprites, shared by all views.
+ *
+ * <p>
+ * Each sprite is decoded once per style, scaled once per size, and kept in
+ * the pixel format of the default screen, so that drawing it needs no
+ * conversion. Building a view or switching styles only looks sprites up.
+ * </p>
+ *
+ * <p>
+ * The sprites of a style may also be looked up packed into one atlas, for
+ * views that draw cells as blits from a single image.
+ * </p>
+ *
+ * @author Erik Selstam
+ */
+final class SpriteCache
+{
+	/** Sprite atlases, by style and size. */
+	private static final Map<String, SpriteAtlas> ATLASES =
+		new HashMap<String, SpriteAtlas>();
+	
+	/** Decoded source images, by path. */
+	private static final Map<String, BufferedImage> SOURCES =
+		new HashMap<String, BufferedImage>();
+	
+	/** Scaled sprites, by path and size. */
+	private static final Map<String, BufferedImage> SPRITES =
+		new HashMap<String, BufferedImage>();
+	
+	/**
+	 * Forbidden constructor.
+	 *
+	 * @author Erik Selstam
+	 */
+	private SpriteCache() {
+		throw new UnsupportedOperationException();
+	}
+	
+	/**
+	 * Create an image in the pixel format of the default screen.
+	 *
+	 * @author Erik Selstam
+	 * @param width  Width in pixels.
+	 * @param height Height in pixels.
+	 * @return A translucent image.
+	 */
+	private static BufferedImage createImage(
+		final int width,
+		final int height)
+	{
+		if (GraphicsEnvironment.isHeadless()) {
+			return new BufferedImage(
+				width,
+				height,
+				BufferedImage.TYPE_INT_ARGB_PRE
+			);
+		}
+		return GraphicsEnvironment.getLocalGraphicsEnvironment()
+			.getDefaultScreenDevice()
+			.getDefaultConfiguration()
+			.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+	}
+	
+	/**
+	 * Get the sprite of a jewel, loading and scaling it on first use.
+	 *
+	 * @author Erik Selstam
+	 * @param style Visual style.
+	 * @param jewel Jewel to get the sprite of.
+	 * @param size  Width of the sprite in pixels. The height keeps the aspect
+	 *              ratio of the source image.
+	 * @return The shared sprite, which must not be changed, or null if the
+	 *         style has no sprites or the source image cannot be read.
+	 */
+	static synchronized BufferedImage get(
+		final Style style,
+		final Jewel jewel,
+		final int   size)
+	{
+		// Validate arguments //
+		if (style == null || jewel == null) {
+			throw new NullPointerException();
+		}
+		if (size <= 0) {
+			throw new IllegalArgumentException("`size` must be greater than 0");
+		}
+		
+		// Look up sprite //
+		String path = getPath(style, jewel);
+		if (path == null) {
+			return null;
+		}
+		String        key    = path + "@" + size;
+		BufferedImage sprite = SPRITES.get(key);
+		if (sprite != null || SPRITES.containsKey(key)) {
+			return sprite;
+		}
+		
+		// Decode source image //
+		BufferedImage source = SOURCES.get(path);
+		if (source == null) {
+			source = AssetManager.loadImage(path);
+			SOURCES.put(path, source);
+		}
+		
+		// Scale into screen format //
+		if (source != null) {
+			int height = Math.round(
+				(float) source.getHeight() * size / source.getWidth()
+			);
+			height = Math.max(height, 1);
+			Image scaled = source.getScaledInstance(
+				size,
+				height,
+				Image.SCALE_SMOOTH
+			);
+			sprite = createImage(size, height);
+			Graphics2D graphics = sprite.createGraphics();
+			graphics.drawImage(scaled, 0, 0, null);
+			graphics.dispose();
+		}
+		SPRITES.put(key, sprite);
+		return sprite;
+	}
+	
+	/**
+	 * Get the sprites of a style packed into an atlas, loading and packing
+	 * them on first use.
+	 *
+	 * @author Erik Selstam
+	 * @param style Visual style.
+	 * @param size  Width of each sprite in pixels.
+	 * @return The shared atlas, or null if the style has no sprites.
+	 */
+	static synchronized SpriteAtlas getAtlas(
+		final Style style,
+		final int   size)
+	{
+		// Look up atlas //
+		String      key   = style + "@" + size;
+		SpriteAtlas atlas = ATLASES.get(key);
+		if (atlas != null || ATLASES.containsKey(key)) {
+			return atlas;
+		}
+		
+		// Get sprites //
+		Jewel[]         jewels  = Jewel.values();
+		BufferedImage[] sprites = new BufferedImage[jewels.length];
+		int             height  = 0;
+		for (int i = 0; i < jewels.length; i++) {
+			sprites[i] = get(style, jewels[i], size);
+			if (sprites[i] != null) {
+				height = Math.max(height, sprites[i].getHeight());
+			}
+		}
+		
+		// Pack sprites //
+		if (height > 0) {
+			BufferedImage image = createImage(size * jewels.length, height);
+			atlas = new SpriteAtlas(sprites, size, image);
+		}
+		ATLASES.put(key, atlas);
+		return atlas;
+	}
+	
+	/**
+	 * Get the path of the image of a jewel.
+	 *
+	 * @author Erik Selstam
+	 * @param style Visual style.
+	 * @param jewel Jewel to get the image of.
+	 * @return Path relative to the resource directory, or null if the style
+	 *         has no images.
+	 */
+	private static String getPath(final Style style, final Jewel jewel) {
+		// Get style directory //
+		String directory;
+		switch (style) {
+			case CLASSIC:   directory = "Version 1"; break;
+			case GEMSTONES: directory = "Version 3"; break;
+			case NONE:      return null;
+			case STEEL:     directory = "Version 2"; break;
+			default:
+				throw new IllegalStateException("Unknown value for `Style`");
+		}
+		
+		// Get file name //
+		String name;
+		switch (jewel) {
+			case DIAMOND:  name = "Diamond.png";  break;
+			case EMERALD:  name = "Emerald.png";  break;
+			case RUBY:     name = "Ruby.png";     break;
+			case SAPPHIRE: name = "Sapphire.png"; break;
+			case TOPAZ:    name = "Topaz.png";    break;
+			default:
+				throw new IllegalStateException("Unknown value for `Jewel`");
+		}
+		
+		return directory + "/" + name;
+	}
+}